@@ -1,11 +1,19 @@
 package com.sparks.of.fabrication.oop2;
 
 import com.sparks.of.fabrication.oop2.models.RoleModel;
+import com.sparks.of.fabrication.oop2.scenes.checkout.CheckoutJournal;
+import com.sparks.of.fabrication.oop2.scenes.checkout.BasketPipeline;
 import com.sparks.of.fabrication.oop2.utils.SceneLoader;
+import com.sparks.of.fabrication.oop2.utils.AsyncEntityManagerWrapper;
+import com.sparks.of.fabrication.oop2.utils.CashLedger;
+import com.sparks.of.fabrication.oop2.utils.CashThresholdMonitor;
 import com.sparks.of.fabrication.oop2.users.Role;
 import com.sparks.of.fabrication.oop2.utils.EntityManagerWrapper;
 import com.sparks.of.fabrication.oop2.utils.Env;
+import com.sparks.of.fabrication.oop2.utils.ItemCatalog;
+import com.sparks.of.fabrication.oop2.utils.ItemNameIndex;
 import com.sparks.of.fabrication.oop2.utils.Singleton;
+import com.sparks.of.fabrication.oop2.utils.StockLevelMonitor;
 import javafx.stage.Stage;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -20,6 +28,15 @@ public class Application extends javafx.application.Application {
     private static final Env env = Singleton.getInstance(Env.class, new Env()).y();
     private static final EntityManagerWrapper entityManager =
             Singleton.getInstance(EntityManagerWrapper.class, new EntityManagerWrapper(env)).y();
+    private static final AsyncEntityManagerWrapper asyncEntityManager =
+            Singleton.getInstance(AsyncEntityManagerWrapper.class, new AsyncEntityManagerWrapper(entityManager)).y();
+    private static final ItemCatalog itemCatalog = Singleton.getInstance(ItemCatalog.class, new ItemCatalog()).y();
+    private static final ItemNameIndex itemNameIndex = Singleton.getInstance(ItemNameIndex.class, new ItemNameIndex()).y();
+    private static final CashLedger cashLedger = Singleton.getInstance(CashLedger.class, new CashLedger(entityManager)).y();
+    private static final CashThresholdMonitor cashMonitor =
+            Singleton.getInstance(CashThresholdMonitor.class, new CashThresholdMonitor(env)).y();
+    private static final StockLevelMonitor stockLevelMonitor =
+            Singleton.getInstance(StockLevelMonitor.class, new StockLevelMonitor(env, entityManager)).y();
     private static final Logger log = LogManager.getLogger(Application.class);
     private static final SceneLoader loader = Singleton.getInstance(SceneLoader.class, new SceneLoader()).y();
 
@@ -57,6 +74,13 @@ public class Application extends javafx.application.Application {
      * Exits the application and cleans up the entity manager.
      */
     private static void exit() {
+        asyncEntityManager.shutdown();
+        BasketPipeline basketPipeline = Singleton.getInstance(BasketPipeline.class);
+        if (basketPipeline != null) {
+            basketPipeline.stop();
+            Singleton.getInstance(CheckoutJournal.class).close();
+        }
+        cashLedger.logOpenShifts();
         boolean exit = entityManager.cleanUp();
 
         if(exit) {
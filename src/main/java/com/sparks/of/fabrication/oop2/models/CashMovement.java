@@ -0,0 +1,76 @@
+package com.sparks.of.fabrication.oop2.models;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Represents one entry of the append-only cash ledger of a checkout.
+ */
+@Entity
+@Table(name = "cash_movement", indexes = @Index(name = "idx_cash_movement_checkout", columnList = "id_checkout, id_cash_movement"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CashMovement {
+
+    /**
+     * The unique identifier for the movement, increasing in the order the movements of a checkout were made.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id_cash_movement", nullable = false)
+    private Long idCashMovement;
+
+    /**
+     * The checkout whose drawer changed.
+     */
+    @ManyToOne
+    @JoinColumn(name = "id_checkout", nullable = false, updatable = false)
+    private Checkout checkout;
+
+    /**
+     * The employee who made the movement.
+     */
+    @ManyToOne
+    @JoinColumn(name = "id_employee", updatable = false)
+    private Employee employee;
+
+    /**
+     * The reason of the movement.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type", nullable = false, length = 20, updatable = false)
+    private CashMovementType type;
+
+    /**
+     * The signed amount of the movement in cents; negative when cash left the drawer.
+     */
+    @Column(name = "amount_minor", nullable = false, updatable = false)
+    private Long amountMinor;
+
+    /**
+     * What the movement refers to, such as the idempotency key of a sale.
+     */
+    @Column(name = "reference", length = 64, updatable = false)
+    private String reference;
+
+    /**
+     * The time of the movement.
+     */
+    @Column(name = "moved_at", nullable = false, updatable = false)
+    private LocalDateTime movedAt;
+}
@@ -0,0 +1,23 @@
+package com.sparks.of.fabrication.oop2.models;
+
+/**
+ * The reasons for which the cash in a checkout drawer can change.
+ */
+public enum CashMovementType {
+    /**
+     * Cash taken for a sale.
+     */
+    SALE,
+    /**
+     * Cash put into the drawer by the cashier ("+++").
+     */
+    CASH_IN,
+    /**
+     * Cash taken out of the drawer by the cashier ("---").
+     */
+    CASH_OUT,
+    /**
+     * Adjustment of the drawer to a counted amount, including the opening float.
+     */
+    CORRECTION
+}
@@ -0,0 +1,90 @@
+package com.sparks.of.fabrication.oop2.models;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Represents the balance and running totals of a checkout's cash ledger up to a given movement.
+ */
+@Entity
+@Table(name = "cash_snapshot", indexes = @Index(name = "idx_cash_snapshot_checkout", columnList = "id_checkout, id_cash_snapshot"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CashSnapshot {
+
+    /**
+     * The unique identifier for the snapshot.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id_cash_snapshot", nullable = false)
+    private Long idCashSnapshot;
+
+    /**
+     * The checkout whose ledger was summed up.
+     */
+    @ManyToOne
+    @JoinColumn(name = "id_checkout", nullable = false, updatable = false)
+    private Checkout checkout;
+
+    /**
+     * The id of the last movement included in the snapshot, or zero if it includes none.
+     */
+    @Column(name = "last_movement_id", nullable = false, updatable = false)
+    private Long lastMovementId;
+
+    /**
+     * The number of movements included in the snapshot.
+     */
+    @Column(name = "movements", nullable = false, updatable = false)
+    private Long movements;
+
+    /**
+     * The total of all sales in cents.
+     */
+    @Column(name = "sales_minor", nullable = false, updatable = false)
+    private Long salesMinor;
+
+    /**
+     * The total of all cash put in, in cents.
+     */
+    @Column(name = "cash_in_minor", nullable = false, updatable = false)
+    private Long cashInMinor;
+
+    /**
+     * The total of all cash taken out, in cents, as a negative amount.
+     */
+    @Column(name = "cash_out_minor", nullable = false, updatable = false)
+    private Long cashOutMinor;
+
+    /**
+     * The total of all corrections in cents.
+     */
+    @Column(name = "corrections_minor", nullable = false, updatable = false)
+    private Long correctionsMinor;
+
+    /**
+     * Whether the snapshot marks the start of a shift.
+     */
+    @Column(name = "shift_start", nullable = false, updatable = false)
+    private Boolean shiftStart;
+
+    /**
+     * The time the snapshot was taken.
+     */
+    @Column(name = "taken_at", nullable = false, updatable = false)
+    private LocalDateTime takenAt;
+}
@@ -38,9 +38,10 @@ public class Checkout {
     private Employee employee;
 
     /**
-     * The cash amount associated with the checkout.
+     * The cash amount associated with the checkout. It is kept in step with the cash ledger by atomic
+     * updates only, so saving the entity never overwrites a concurrent change of the balance.
      */
-    @Column(name = "cash")
+    @Column(name = "cash", updatable = false)
     private Double cash;
 }
 
@@ -1,12 +1,16 @@
 package com.sparks.of.fabrication.oop2.models;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import lombok.*;
 
 /**
  * Represents a client entity
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "client_model")
 @Getter
 @Setter
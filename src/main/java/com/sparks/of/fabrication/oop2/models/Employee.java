@@ -1,6 +1,8 @@
 package com.sparks.of.fabrication.oop2.models;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
@@ -10,6 +12,8 @@ import lombok.ToString;
  * Represents an employee entity.
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "employee")
 @Data
 @NoArgsConstructor
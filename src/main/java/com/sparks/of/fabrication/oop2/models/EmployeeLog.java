@@ -20,7 +20,8 @@ public class EmployeeLog {
      * The unique identifier for the log entry.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "employee_log_seq")
+    @SequenceGenerator(name = "employee_log_seq", sequenceName = "employee_log_seq", allocationSize = 50)
     private Long logId;
 
     /**
@@ -4,6 +4,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.Column;
@@ -17,7 +18,7 @@ import lombok.AllArgsConstructor;
  * Represents Item entity
  */
 @Entity
-@Table(name = "item")
+@Table(name = "item", indexes = @Index(name = "idx_item_name", columnList = "name"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
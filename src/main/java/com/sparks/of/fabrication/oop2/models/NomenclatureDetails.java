@@ -4,6 +4,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.Column;
@@ -26,7 +27,8 @@ public class NomenclatureDetails {
      * The unique identifier for the nomenclature details.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "nomenclature_details_seq")
+    @SequenceGenerator(name = "nomenclature_details_seq", sequenceName = "nomenclature_details_seq", allocationSize = 50)
     @Column(name = "id_nom_details", nullable = false)
     private Long idNomDetails;
 
@@ -3,6 +3,8 @@ package com.sparks.of.fabrication.oop2.models;
 import com.sparks.of.fabrication.oop2.users.Privileges;
 import com.sparks.of.fabrication.oop2.users.Role;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import lombok.*;
 
 import java.util.Set;
@@ -11,6 +13,8 @@ import java.util.Set;
  * Represents a role entity for defining roles within the system.
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "role_model")
 @NoArgsConstructor
 @Data
@@ -55,6 +55,12 @@ public class Transaction {
      */
     @Column(name = "transaction_date", nullable = false)
     private LocalDate transactionDate;
+
+    /**
+     * The unique key of the sale, which keeps a journaled basket from being posted twice.
+     */
+    @Column(name = "idempotency_key", unique = true, length = 36)
+    private String idempotencyKey;
 }
 
 
@@ -19,7 +19,8 @@ public class TransactionDetail {
      * The unique identifier for the transaction detail.
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transaction_details_seq")
+    @SequenceGenerator(name = "transaction_details_seq", sequenceName = "transaction_details_seq", allocationSize = 50)
     private Long id;
 
     /**
@@ -200,13 +200,22 @@ public class ArrivalGoodsScene {
             Suppliers supplier = entityManagerWrapper.findEntityByVal(Suppliers.class, field, SupplierBox.getValue()).y();
             log.info("Saving invoice store with supplier: {}", supplier.getName());
 
-            arrivalGoodsService.updateCurrentNomenclature(supplier, nomenclatureList, currentIndex, currentInvoiceStore);
-            arrivalGoodsService.saveCurrentInvoiceStore(currentInvoiceStore, Integer.parseInt(txtDocumentNumber.getText()), Date.valueOf(lblSystemDate.getValue()));
-            arrivalGoodsService.processArrivalTableItems(currentInvoiceStore, arrivalTable, AmS);
-            arrivalGoodsService.finalizeInvoiceStore(currentInvoiceStore);
-
-            logEmployee.createLog("Invoice saved by employee: " + loggedInEmployee.getId(),"");
-            log.info("Invoice successfully saved.");
+            int documentNumber = Integer.parseInt(txtDocumentNumber.getText());
+            Date documentDate = Date.valueOf(lblSystemDate.getValue());
+            boolean saved = entityManagerWrapper.inTransaction(() -> {
+                arrivalGoodsService.updateCurrentNomenclature(supplier, nomenclatureList, currentIndex, currentInvoiceStore);
+                arrivalGoodsService.saveCurrentInvoiceStore(currentInvoiceStore, documentNumber, documentDate);
+                arrivalGoodsService.processArrivalTableItems(currentInvoiceStore, arrivalTable, AmS);
+                arrivalGoodsService.finalizeInvoiceStore(currentInvoiceStore);
+            });
+
+            if (saved) {
+                logEmployee.createLog("Invoice saved by employee: " + loggedInEmployee.getId(),"");
+                log.info("Invoice successfully saved.");
+            } else {
+                logEmployee.createLog("Invoice save rolled back for employee: " + loggedInEmployee.getId(),"");
+                log.error("Saving invoice failed, all changes were rolled back.");
+            }
         }
     }
 
@@ -3,6 +3,7 @@ package com.sparks.of.fabrication.oop2.scenes.arrivalGoods;
 import com.sparks.of.fabrication.oop2.utils.Singleton;
 import com.sparks.of.fabrication.oop2.models.*;
 import com.sparks.of.fabrication.oop2.utils.EntityManagerWrapper;
+import com.sparks.of.fabrication.oop2.utils.ItemCatalog;
 import com.sparks.of.fabrication.oop2.utils.LogEmployee;
 import com.sparks.of.fabrication.oop2.utils.Pair;
 import javafx.scene.control.TableColumn;
@@ -15,6 +16,8 @@ import java.sql.Date;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 /**
  * Service class for managing the adding goods, including loading items from the database,
@@ -25,6 +28,9 @@ public class ArrivalGoodsService {
     private final EntityManagerWrapper entityManagerWrapper = Singleton.getInstance(EntityManagerWrapper.class);
     private static final Logger log = LogManager.getLogger(ArrivalGoodsService.class);
     private final LogEmployee logEmployee = Singleton.getInstance(LogEmployee.class);
+    private final ItemCatalog itemCatalog = Singleton.getInstance(ItemCatalog.class);
+    private static final String RECEIVE_STOCK = "UPDATE item SET quantity = quantity + ? WHERE id_item = ?";
+    private static final String UPDATE_PRICES = "UPDATE item SET arrival_price = ?, price = ? WHERE id_item = ?";
 
     /**
      * Loads the list of nomenclatures for a given date from the database.
@@ -136,6 +142,11 @@ public class ArrivalGoodsService {
 
     /**
      * Processes the arrival table items and calculates the final price for the invoice store.
+     * The received quantities are added to the stock in the database with set-based updates in ascending
+     * id order, like the checkout decrements it, so a delivery never overwrites sales made meanwhile.
+     * The stock, the prices and the nomenclature details are written in one transaction; the received items
+     * are dropped from the item catalog only once the outermost transaction has committed, so a scan in between
+     * cannot cache the old price again.
      *
      * @param currentInvoiceStore The invoice store to update.
      * @param arrivalTable        The table containing the items.
@@ -144,14 +155,35 @@ public class ArrivalGoodsService {
     protected void processArrivalTableItems(InvoiceStore currentInvoiceStore, TableView<Item> arrivalTable, TableView<AmSData> AmS) {
         try {
             double finalPrice = 0.0;
+            Map<Long, Integer> receipts = new TreeMap<>();
+            Map<Long, Object[]> prices = new TreeMap<>();
+            List<Object> pendingEntities = new ArrayList<>();
             for (Item item : arrivalTable.getItems()) {
-                Item dbItem = entityManagerWrapper.findEntityById(Item.class, item.getIdItem().intValue()).y();
+                Item dbItem = entityManagerWrapper.findEntityById(Item.class, item.getIdItem()).y();
                 int rowIndex = arrivalTable.getItems().indexOf(item);
 
                 if (rowIndex >= 0 && rowIndex < AmS.getItems().size()) {
-                    finalPrice += updateItemAndNomenclatureDetails(dbItem, rowIndex, AmS, currentInvoiceStore.getNomenclatura());
+                    finalPrice += updateItemAndNomenclatureDetails(dbItem, rowIndex, AmS, currentInvoiceStore.getNomenclatura(),
+                            receipts, prices, pendingEntities);
                 }
             }
+            boolean written = entityManagerWrapper.inTransaction(() -> {
+                List<Object[]> receiptRows = new ArrayList<>();
+                receipts.forEach((id, quantity) -> receiptRows.add(new Object[]{quantity, id}));
+                if (!receiptRows.isEmpty() && !entityManagerWrapper.executeBatchUpdate(RECEIVE_STOCK, receiptRows).x()) {
+                    throw new IllegalStateException("Could not add the received goods to the stock");
+                }
+                if (!prices.isEmpty() && !entityManagerWrapper.executeBatchUpdate(UPDATE_PRICES, new ArrayList<>(prices.values())).x()) {
+                    throw new IllegalStateException("Could not update the prices of the received goods");
+                }
+                if (!entityManagerWrapper.genEntities(pendingEntities)) {
+                    throw new IllegalStateException("Could not write the nomenclature details");
+                }
+            });
+            if (written) {
+                List<Long> receivedIds = new ArrayList<>(receipts.keySet());
+                entityManagerWrapper.afterCommit(() -> receivedIds.forEach(itemCatalog::invalidate));
+            }
             currentInvoiceStore.setFinalPrice(finalPrice);
             log.info("Processed arrival table items with final price: {}", finalPrice);
         } catch (Exception e) {
@@ -162,14 +194,22 @@ public class ArrivalGoodsService {
 
     /**
      * Updates the item and its associated nomenclature details for the given row in the arrival table.
+     * The received quantity, the changed prices and the new entities are collected so the whole delivery
+     * can be written in one batch. The item entity is only read, never changed: it may be managed by the
+     * transaction of the caller, and a dirty item would be flushed with the quantity it had before the delivery.
      *
      * @param dbItem            The item to update.
      * @param rowIndex          The row index of the item in the table.
      * @param AmS               The table containing AmS data.
      * @param currentNomenclature The nomenclature to associate with the item.
+     * @param receipts          Collects the received quantity by item id.
+     * @param prices            Collects the parameters of the price update by item id.
+     * @param pendingEntities   The list collecting the entities to write.
      * @return The calculated value based on item quantity and price.
      */
-    protected double updateItemAndNomenclatureDetails(Item dbItem, int rowIndex, TableView<AmSData> AmS, Nomenclature currentNomenclature) {
+    protected double updateItemAndNomenclatureDetails(Item dbItem, int rowIndex, TableView<AmSData> AmS, Nomenclature currentNomenclature,
+                                                      Map<Long, Integer> receipts, Map<Long, Object[]> prices,
+                                                      List<Object> pendingEntities) {
         try {
             TableColumn<AmSData, Integer> colQuantity = (TableColumn<AmSData, Integer>) AmS.getColumns().get(0);
             TableColumn<AmSData, Double> colArrivalPrice = (TableColumn<AmSData, Double>) AmS.getColumns().get(1);
@@ -182,21 +222,19 @@ public class ArrivalGoodsService {
             boolean priceChanged = !dbItem.getArrivalPrice().equals(newArrivalPrice) || !dbItem.getPrice().equals(newSellingPrice);
 
             if (priceChanged) {
-                dbItem.setArrivalPrice(newArrivalPrice);
-                dbItem.setPrice(newSellingPrice);
+                prices.put(dbItem.getIdItem(), new Object[]{newArrivalPrice, newSellingPrice, dbItem.getIdItem()});
             }
-            dbItem.setQuantity(dbItem.getQuantity() + (newTableQuantity != null ? newTableQuantity : 0));
-            entityManagerWrapper.genEntity(dbItem);
+            receipts.merge(dbItem.getIdItem(), newTableQuantity != null ? newTableQuantity : 0, Integer::sum);
 
             NomenclatureDetails nomenclatureDetails = new NomenclatureDetails();
             nomenclatureDetails.setItem(dbItem);
             nomenclatureDetails.setItemQuantity(newTableQuantity != null ? newTableQuantity : 0);
             nomenclatureDetails.setItemPrice(newArrivalPrice);
             nomenclatureDetails.setNomenclature(currentNomenclature);
-            entityManagerWrapper.genEntity(nomenclatureDetails);
+            pendingEntities.add(nomenclatureDetails);
 
             log.info("Updated item and nomenclature details for item ID: {}", dbItem.getIdItem());
-            return dbItem.getArrivalPrice() * nomenclatureDetails.getItemQuantity();
+            return newArrivalPrice * nomenclatureDetails.getItemQuantity();
         } catch (Exception e) {
             log.error("Error updating item and nomenclature details: ", e);
             logEmployee.createLog("Update Item Details Error", e.getMessage());
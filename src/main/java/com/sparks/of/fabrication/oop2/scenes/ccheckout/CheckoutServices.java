@@ -1,10 +1,13 @@
 package com.sparks.of.fabrication.oop2.scenes.ccheckout;
 
 import com.sparks.of.fabrication.oop2.utils.Singleton;
+import com.sparks.of.fabrication.oop2.models.CashMovementType;
 import com.sparks.of.fabrication.oop2.models.Checkout;
 import com.sparks.of.fabrication.oop2.models.Employee;
+import com.sparks.of.fabrication.oop2.utils.CashLedger;
 import com.sparks.of.fabrication.oop2.utils.EntityManagerWrapper;
 import com.sparks.of.fabrication.oop2.utils.LogEmployee;
+import com.sparks.of.fabrication.oop2.utils.Pair;
 
 import java.lang.reflect.Field;
 import java.util.List;
@@ -18,6 +21,7 @@ public class CheckoutServices {
 
     private final EntityManagerWrapper entityManagerWrapper = Singleton.getInstance(EntityManagerWrapper.class);
     private final LogEmployee logEmployee = Singleton.getInstance(LogEmployee.class);
+    private final CashLedger cashLedger = Singleton.getInstance(CashLedger.class);
 
     /**
      * Retrieves the names of all employees from the database.
@@ -73,20 +77,33 @@ public class CheckoutServices {
     public void createCheckout(Employee employee, double cashAmount) {
         Checkout newCheckout = new Checkout();
         newCheckout.setEmployee(employee);
-        newCheckout.setCash(cashAmount);
-        entityManagerWrapper.genEntity(newCheckout);
+        newCheckout.setCash(0.0);
+        entityManagerWrapper.inTransaction(() -> {
+            if (!entityManagerWrapper.genEntity(newCheckout)) {
+                throw new IllegalStateException("Could not create the checkout");
+            }
+            if (!cashLedger.record(newCheckout, Singleton.getInstance(Employee.class), CashMovementType.CORRECTION,
+                    CashLedger.toMinor(cashAmount), "Opening float").x()) {
+                throw new IllegalStateException("Could not record the opening float");
+            }
+        });
         logEmployee.createLog("Created Checkout", employee.getName());
     }
 
     /**
-     * Updates the cash amount for an existing checkout.
+     * Updates the cash amount for an existing checkout by recording a correction in its cash ledger.
      *
      * @param checkout The checkout to be updated.
      * @param newCashAmount The new cash amount to be set for the checkout.
      */
     public void updateCheckoutCash(Checkout checkout, double newCashAmount) {
-        checkout.setCash(newCashAmount);
-        entityManagerWrapper.genEntity(checkout);
+        Pair<Boolean, Long> balance = cashLedger.correctTo(checkout, Singleton.getInstance(Employee.class),
+                CashLedger.toMinor(newCashAmount), "Manual correction");
+        if (!balance.x()) {
+            logEmployee.createLog("Checkout Update Error", "Could not correct the cash of checkout " + checkout.getIdCheckout());
+            return;
+        }
+        checkout.setCash(balance.y() / 100.0);
         logEmployee.createLog("Updated Checkout", "ID: " + checkout.getIdCheckout() + ", New Cash: $" + newCashAmount);
     }
 
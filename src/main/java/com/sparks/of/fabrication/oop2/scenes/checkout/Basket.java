@@ -0,0 +1,197 @@
+package com.sparks.of.fabrication.oop2.scenes.checkout;
+
+import com.sparks.of.fabrication.oop2.utils.CatalogItem;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The basket of the current sale, indexed by item id.
+ * <p>
+ * Adding, decrementing and removing a line take constant time: every line knows its row in the
+ * observable list, a changed line is replaced by an updated copy so the bound table only redraws that row,
+ * and a removed line is swapped with the last row. The total is kept up to date in minor units
+ * (cents), so repeated scans never accumulate floating point errors.
+ */
+public class Basket {
+
+    private final ObservableList<ScannedItem> items = FXCollections.observableArrayList();
+    private final Map<Long, Line> lines = new HashMap<>();
+    private long totalMinor;
+
+    /**
+     * Position and unit price of one basket line.
+     */
+    private static final class Line {
+        private int row;
+        private final long unitPriceMinor;
+
+        private Line(int row, long unitPriceMinor) {
+            this.row = row;
+            this.unitPriceMinor = unitPriceMinor;
+        }
+    }
+
+    /**
+     * Gets the rows of the basket, to be set as the items of the basket table.
+     *
+     * @return The observable rows of the basket.
+     */
+    public ObservableList<ScannedItem> getItems() {
+        return items;
+    }
+
+    /**
+     * Adds one unit of the item, creating its line on the first scan.
+     *
+     * @param item The scanned item.
+     */
+    public void add(CatalogItem item) {
+        add(item, 1);
+    }
+
+    /**
+     * Adds units of the item, creating its line on the first scan.
+     *
+     * @param item The scanned item.
+     * @param quantity The number of units to add.
+     */
+    public void add(CatalogItem item, int quantity) {
+        Line line = lines.get(item.id());
+        if (line == null) {
+            ScannedItem scannedItem = new ScannedItem(item.id(), item.name(), item.price(), quantity);
+            line = new Line(items.size(), toMinor(item.price()));
+            lines.put(item.id(), line);
+            items.add(scannedItem);
+        } else {
+            ScannedItem scannedItem = items.get(line.row);
+            items.set(line.row, withQuantity(scannedItem, scannedItem.getQuantity() + quantity));
+        }
+        totalMinor += line.unitPriceMinor * quantity;
+    }
+
+    /**
+     * Removes one unit of the item, dropping its line when the last unit is removed.
+     *
+     * @param id The id of the item.
+     * @return True if the item was in the basket, false otherwise.
+     */
+    public boolean decrement(long id) {
+        return decrement(id, 1);
+    }
+
+    /**
+     * Removes units of the item, dropping its line when no unit is left.
+     *
+     * @param id The id of the item.
+     * @param quantity The number of units to remove.
+     * @return True if the item was in the basket, false otherwise.
+     */
+    public boolean decrement(long id, int quantity) {
+        Line line = lines.get(id);
+        if (line == null) {
+            return false;
+        }
+        ScannedItem scannedItem = items.get(line.row);
+        if (scannedItem.getQuantity() > quantity) {
+            items.set(line.row, withQuantity(scannedItem, scannedItem.getQuantity() - quantity));
+            totalMinor -= line.unitPriceMinor * quantity;
+        } else {
+            remove(id);
+        }
+        return true;
+    }
+
+    /**
+     * Removes the whole line of the item.
+     *
+     * @param id The id of the item.
+     * @return True if the item was in the basket, false otherwise.
+     */
+    public boolean remove(long id) {
+        Line line = lines.remove(id);
+        if (line == null) {
+            return false;
+        }
+        totalMinor -= line.unitPriceMinor * items.get(line.row).getQuantity();
+
+        int lastRow = items.size() - 1;
+        if (line.row != lastRow) {
+            ScannedItem last = items.get(lastRow);
+            items.set(line.row, last);
+            lines.get(last.getId()).row = line.row;
+        }
+        items.remove(lastRow);
+        return true;
+    }
+
+    /**
+     * Gets the line of the item.
+     *
+     * @param id The id of the item.
+     * @return The line of the item, or null if it is not in the basket.
+     */
+    public ScannedItem get(long id) {
+        Line line = lines.get(id);
+        return line == null ? null : items.get(line.row);
+    }
+
+    /**
+     * Removes all lines.
+     */
+    public void clear() {
+        lines.clear();
+        items.clear();
+        totalMinor = 0;
+    }
+
+    /**
+     * Checks whether the basket has no lines.
+     *
+     * @return True if the basket is empty, false otherwise.
+     */
+    public boolean isEmpty() {
+        return items.isEmpty();
+    }
+
+    /**
+     * Gets the total of the basket in minor units.
+     *
+     * @return The total in cents.
+     */
+    public long getTotalMinor() {
+        return totalMinor;
+    }
+
+    /**
+     * Formats the total of the basket for display.
+     *
+     * @return The total, e.g. "$12.30".
+     */
+    public String formatTotal() {
+        return String.format("$%d.%02d", totalMinor / 100, Math.abs(totalMinor % 100));
+    }
+
+    /**
+     * Copies a line with another quantity.
+     *
+     * @param scannedItem The line to copy.
+     * @param quantity The quantity of the copy.
+     * @return The copied line.
+     */
+    private static ScannedItem withQuantity(ScannedItem scannedItem, int quantity) {
+        return new ScannedItem(scannedItem.getId(), scannedItem.getName(), scannedItem.getPrice(), quantity);
+    }
+
+    /**
+     * Converts a price to minor units.
+     *
+     * @param price The price.
+     * @return The price in cents.
+     */
+    private static long toMinor(double price) {
+        return Math.round(price * 100);
+    }
+}
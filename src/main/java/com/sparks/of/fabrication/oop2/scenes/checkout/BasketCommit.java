@@ -0,0 +1,22 @@
+package com.sparks.of.fabrication.oop2.scenes.checkout;
+
+import com.sparks.of.fabrication.oop2.models.Checkout;
+import com.sparks.of.fabrication.oop2.models.Transaction;
+
+import java.util.List;
+
+/**
+ * Outcome of committing a basket at the checkout.
+ *
+ * @param checkout      The checkout with its updated cash.
+ * @param transaction   The written transaction.
+ * @param totalAmount   The total amount of the basket.
+ * @param lines         The number of basket lines written.
+ * @param latencyMillis The time the commit took, in milliseconds.
+ * @param oversoldLines The lines that had more quantity than was left in stock, which roll the basket back.
+ * @param duplicate     True if the basket had already been posted under the same idempotency key.
+ * @param failure       The error that rolled the basket back, or null if it was committed or the cause is unknown.
+ */
+public record BasketCommit(Checkout checkout, Transaction transaction, double totalAmount, int lines, long latencyMillis,
+                           List<ScannedItem> oversoldLines, boolean duplicate, Exception failure) {
+}
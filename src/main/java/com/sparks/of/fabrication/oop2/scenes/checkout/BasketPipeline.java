@@ -0,0 +1,175 @@
+package com.sparks.of.fabrication.oop2.scenes.checkout;
+
+import com.sparks.of.fabrication.oop2.utils.EntityManagerWrapper;
+import com.sparks.of.fabrication.oop2.utils.LogEmployee;
+import com.sparks.of.fabrication.oop2.utils.Pair;
+import com.sparks.of.fabrication.oop2.utils.Singleton;
+import javafx.application.Platform;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background pipeline posting completed baskets from every lane of this application to the database.
+ * <p>
+ * Lanes hand their baskets over with {@link #submit(JournaledBasket)}, which appends them to the checkout
+ * journal and returns at once, so the cashier can start the next sale. A single worker on a virtual thread
+ * reads the journal in order and group-commits up to {@value #MAX_BATCH} baskets per database transaction,
+ * so throughput grows with the batch size while the database is busy. Each lane is told on the FX thread
+ * once its basket is durably posted, or why it could not be. The journal capacity bounds the pipeline: when
+ * it is full, submit refuses the basket and the lane has to commit it itself. If the database is unreachable
+ * or fails for another transient reason, the baskets stay in the journal and the worker retries every
+ * {@value #RETRY_SECONDS} seconds, also after a restart. A basket that can never be posted, such as one selling
+ * more than the stock the database knows of, still is a sale that happened: it is moved to a second journal of
+ * rejected baskets for a manager to resolve, and only then removed from the checkout journal. If that journal is
+ * full the basket stays where it is and the pipeline stops, like for a transient error, so no sale is ever lost.
+ */
+public class BasketPipeline {
+
+    private static final Logger log = LogManager.getLogger(BasketPipeline.class);
+    private static final int MAX_BATCH = 32;
+    private static final long RETRY_SECONDS = 5;
+
+    private final CheckoutJournal journal;
+    private final CheckoutJournal rejectedBaskets;
+    private final CheckoutServices checkoutServices = new CheckoutServices();
+    private final LogEmployee logEmployee = Singleton.getInstance(LogEmployee.class);
+    private final Map<String, CompletableFuture<Pair<Boolean, BasketCommit>>> acknowledgements = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService worker = Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().factory());
+
+    /**
+     * Creates the pipeline over the given journals.
+     *
+     * @param journal The journal holding the baskets waiting to be posted.
+     * @param rejectedBaskets The journal keeping the baskets the database rejected until a manager resolves them.
+     */
+    public BasketPipeline(CheckoutJournal journal, CheckoutJournal rejectedBaskets) {
+        this.journal = journal;
+        this.rejectedBaskets = rejectedBaskets;
+    }
+
+    /**
+     * Starts posting journaled baskets, including the ones left over from a previous run.
+     */
+    public void start() {
+        int rejected = rejectedBaskets.pendingCount();
+        if (rejected > 0) {
+            log.warn("{} rejected baskets wait for a manager to resolve them.", rejected);
+        }
+        worker.scheduleWithFixedDelay(this::drain, 0, RETRY_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Hands a completed basket over to the pipeline.
+     *
+     * @param basket The basket to post.
+     * @return A future completed on the FX thread once the basket is posted or rejected,
+     *         or null if the pipeline is full and the basket was not accepted.
+     */
+    public CompletableFuture<Pair<Boolean, BasketCommit>> submit(JournaledBasket basket) {
+        CompletableFuture<Pair<Boolean, BasketCommit>> acknowledgement = new CompletableFuture<>();
+        acknowledgements.put(basket.idempotencyKey(), acknowledgement);
+        if (!journal.append(basket)) {
+            acknowledgements.remove(basket.idempotencyKey());
+            return null;
+        }
+        worker.execute(this::drain);
+        return acknowledgement;
+    }
+
+    /**
+     * Stops the worker; baskets not posted yet stay in the journal for the next start.
+     */
+    public void stop() {
+        worker.shutdownNow();
+    }
+
+    /**
+     * Posts the journaled baskets in order, batch by batch, until the journal is empty or the database fails.
+     */
+    private void drain() {
+        try {
+            List<JournaledBasket> batch;
+            while (!(batch = journal.peekBatch(MAX_BATCH)).isEmpty()) {
+                Pair<Boolean, List<BasketCommit>> group = checkoutServices.commitBaskets(batch);
+                if (group.x()) {
+                    for (int i = 0; i < batch.size(); i++) {
+                        acknowledge(batch.get(i), new Pair<>(true, group.y().get(i)));
+                    }
+                } else if (!postOneByOne(batch)) {
+                    log.warn("Baskets could not be posted, {} baskets wait in the checkout journal.", journal.pendingCount());
+                    return;
+                }
+            }
+        } catch (Exception e) {
+            log.error("Error posting journaled baskets: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Posts the baskets of a failed batch one by one, so a single rejected basket does not hold back the others.
+     * Posting stops at the first basket that failed for a transient reason, such as a lost connection; a basket
+     * that failed for any other reason, such as missing stock or a deleted item, is moved to the rejected baskets,
+     * since waiting cannot fix it.
+     *
+     * @param batch The baskets of the failed batch.
+     * @return True if every basket was posted or rejected, false if posting must stop.
+     */
+    private boolean postOneByOne(List<JournaledBasket> batch) {
+        for (JournaledBasket basket : batch) {
+            Pair<Boolean, BasketCommit> result = checkoutServices.commitBasket(basket);
+            if (!result.x()) {
+                BasketCommit rejected = result.y();
+                if (rejected.oversoldLines().isEmpty() && EntityManagerWrapper.isTransient(rejected.failure())) {
+                    return false;
+                }
+                String reason = describeRejection(rejected);
+                if (!rejectedBaskets.append(basket)) {
+                    log.error("Basket {} could not be posted, {}, and the rejected baskets are full; it stays in the checkout journal.",
+                            basket.idempotencyKey(), reason);
+                    return false;
+                }
+                log.error("Basket {} could not be posted, {}. Kept for a manager with lines: {}", basket.idempotencyKey(), reason, basket.lines());
+                logEmployee.createLog("Basket Rejected", "Basket " + basket.idempotencyKey() + " could not be posted, " + reason
+                        + ", kept for a manager to resolve");
+            }
+            acknowledge(basket, result);
+        }
+        return true;
+    }
+
+    /**
+     * Describes why a basket was rejected.
+     *
+     * @param rejected The outcome of the rejected basket.
+     * @return The reason, for the log.
+     */
+    private static String describeRejection(BasketCommit rejected) {
+        if (!rejected.oversoldLines().isEmpty()) {
+            return "not enough stock for " + rejected.oversoldLines().size() + " lines";
+        }
+        return rejected.failure() != null ? rejected.failure().getMessage() : "unknown error";
+    }
+
+    /**
+     * Removes a posted basket, or a rejected one already kept in the rejected baskets, from the journal
+     * and tells the lane that submitted it.
+     *
+     * @param basket The basket.
+     * @param result The outcome of posting the basket.
+     */
+    private void acknowledge(JournaledBasket basket, Pair<Boolean, BasketCommit> result) {
+        journal.acknowledge(basket.idempotencyKey());
+        CompletableFuture<Pair<Boolean, BasketCommit>> acknowledgement = acknowledgements.remove(basket.idempotencyKey());
+        if (acknowledgement != null) {
+            Platform.runLater(() -> acknowledgement.complete(result));
+        }
+    }
+}
@@ -2,10 +2,12 @@ package com.sparks.of.fabrication.oop2.scenes.checkout;
 
 import com.sparks.of.fabrication.oop2.utils.Singleton;
 import com.sparks.of.fabrication.oop2.models.*;
+import com.sparks.of.fabrication.oop2.utils.CashLedger;
+import com.sparks.of.fabrication.oop2.utils.CashThresholdMonitor;
+import com.sparks.of.fabrication.oop2.utils.CatalogItem;
 import com.sparks.of.fabrication.oop2.utils.EntityManagerWrapper;
 import com.sparks.of.fabrication.oop2.utils.LogEmployee;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
+import com.sparks.of.fabrication.oop2.utils.Pair;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import org.apache.logging.log4j.LogManager;
@@ -13,6 +15,8 @@ import org.apache.logging.log4j.Logger;
 
 import java.sql.Date;
 import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Controller for managing the checkout process, including scanning items, handling transactions,
@@ -33,16 +37,16 @@ public class CheckoutController {
 
     private Checkout checkout;
     private final Employee loggedEmployee = Singleton.getInstance(Employee.class);
-    private final StringBuilder builder = new StringBuilder();
-    private ObservableList<ScannedItem> scannedItems;
+    private final ScanCommandParser scanParser = new ScanCommandParser();
+    private final CashThresholdMonitor cashMonitor = Singleton.getInstance(CashThresholdMonitor.class);
+    private final Basket basket = new Basket();
+    private BasketPipeline pipeline;
     private final EntityManagerWrapper entityManagerWrapper = Singleton.getInstance(EntityManagerWrapper.class);
     private final CheckoutServices checkoutServices = new CheckoutServices();
 
     private static final Logger log = LogManager.getLogger(CheckoutController.class);
     private final LogEmployee logEmployee = Singleton.getInstance(LogEmployee.class);
 
-    private double totalAmount = 0.0;
-
     /**
      * Initializes the checkout controller by setting up the scanned items table and client box,
      * configuring the scan field, and loading the current checkout.
@@ -50,34 +54,20 @@ public class CheckoutController {
     @FXML
     public void initialize() throws NoSuchFieldException {
         try {
-            scannedItems = FXCollections.observableArrayList();
-            scannedItemsTable.setItems(scannedItems);
+            scannedItemsTable.setItems(basket.getItems());
 
             TableViewCheckout.configureTableColumns(scannedItemsTable, idColumn, nameColumn, priceColumn, quantityColumn, clientBox);
 
             checkout = checkoutServices.findCheckout(loggedEmployee);
+            checkoutServices.openShift(checkout);
+            checkAndNotifyLowCash();
+            checkoutServices.warmItemCatalog();
+            pipeline = checkoutServices.openPipeline();
             clientBox.getItems().setAll(checkoutServices.loadClient());
             clientBox.setValue(checkoutServices.loadClient().getFirst());
 
             scanField.setOnAction(event -> {
-                builder.append(scanField.getText().trim());
-                if (builder.length() > 1) {
-                    String input = builder.toString();
-                    if (input.startsWith("+++")) {
-                        checkoutServices.handleAddToCheckout(Double.parseDouble(input.substring(3)), checkout);
-                    } else if (input.startsWith("---")) {
-                        checkoutServices.handleRemoveFromCheckout(Double.parseDouble(input.substring(3)), checkout);
-                        checkAndNotifyLowCash();
-                    } else if (input.startsWith("+")) {
-                        handleAddItem(input.substring(1));
-                    } else if (input.startsWith("-")) {
-                        handleRemoveItem(input.substring(1));
-                    } else {
-                        log.warn("Invalid input detected: {}", input);
-                        logEmployee.createLog("Invalid Input", "Invalid input detected during scan: " + input);
-                    }
-                }
-                builder.setLength(0);
+                handleScan(scanField.getText());
                 scanField.clear();
             });
 
@@ -88,79 +78,125 @@ public class CheckoutController {
         }
     }
 
+    /**
+     * Handles one input event of the scan field, which may hold several scan commands,
+     * see {@link ScanCommandParser}. All item commands are applied to the basket before the total is redrawn.
+     * @param input The text of the event.
+     */
+    private void handleScan(String input) {
+        int commands = scanParser.parse(input);
+        if (scanParser.hasError()) {
+            CharSequence invalid = input.subSequence(scanParser.errorStart(), scanParser.errorEnd());
+            log.warn("Invalid input detected: {} ({} invalid commands)", invalid, scanParser.invalidCommands());
+            logEmployee.createLog("Invalid Input", "Invalid input detected during scan: " + invalid);
+        }
+
+        boolean basketChanged = false;
+        for (int i = 0; i < commands; i++) {
+            switch (scanParser.kind(i)) {
+                case ADD -> basketChanged |= handleAddItem(scanParser.code(i), scanParser.quantity(i));
+                case REMOVE -> basketChanged |= handleRemoveItem(scanParser.code(i), scanParser.quantity(i));
+                case VOID_LINE -> basketChanged |= handleVoidLine(scanParser.code(i));
+                case VOID_BASKET -> {
+                    basket.clear();
+                    basketChanged = true;
+                    logEmployee.createLog("Basket Voided", "The whole basket was voided.");
+                }
+                case CASH_IN -> {
+                    checkoutServices.handleAddToCheckout(scanParser.amountMinor(i), checkout);
+                    checkAndNotifyLowCash();
+                }
+                case CASH_OUT -> {
+                    checkoutServices.handleRemoveFromCheckout(scanParser.amountMinor(i), checkout);
+                    checkAndNotifyLowCash();
+                }
+            }
+        }
+        if (basketChanged) {
+            totalLabel.setText(basket.formatTotal());
+        }
+    }
+
     /**
      * Handles adding a scanned item to the checkout.
      * @param code The code of the item to be added.
+     * @param quantity The number of units to add.
+     * @return True if the basket changed, false otherwise.
      */
-    private void handleAddItem(String code) {
+    private boolean handleAddItem(long code, int quantity) {
         try {
-            Item item = checkoutServices.fetchItemByCode(code);
+            CatalogItem item = checkoutServices.fetchItem(code);
             if (item == null) {
                 log.warn("Item with code {} not found.", code);
                 logEmployee.createLog("Item Not Found", "Attempted to add non-existent item with code: " + code);
-                return;
+                return false;
             }
 
-            ScannedItem existingItem = checkoutServices.findExistingItem(item.getName(), scannedItems);
-            if (existingItem != null) {
-                existingItem.setQuantity(existingItem.getQuantity() + 1);
-            } else {
-                checkoutServices.addNewItemToScannedList(item, scannedItems);
-            }
-            scannedItemsTable.refresh();
-            totalAmount += item.getPrice();
-            totalLabel.setText(String.format("$%.2f", totalAmount));
+            basket.add(item, quantity);
+            return true;
         } catch (Exception e) {
             log.error("Error adding item with code {}: {}", code, e.getMessage());
             logEmployee.createLog("Add Item Error", "Error adding item with code " + code + ": " + e.getMessage());
+            return false;
         }
     }
 
     /**
      * Handles removing a scanned item from the checkout.
      * @param code The code of the item to be removed.
+     * @param quantity The number of units to remove.
+     * @return True if the basket changed, false otherwise.
      */
-    private void handleRemoveItem(String code) {
-        try {
-            Item item = checkoutServices.fetchItemByCode(code);
-            if (item == null) {
-                log.warn("Item with code {} not found for removal.", code);
-                logEmployee.createLog("Item Not Found for Removal", "Attempted to remove non-existent item with code: " + code);
-                return;
-            }
+    private boolean handleRemoveItem(long code, int quantity) {
+        if (!basket.decrement(code, quantity)) {
+            log.warn("Item with code {} not found for removal.", code);
+            logEmployee.createLog("Item Not Found for Removal", "Attempted to remove non-existent item with code: " + code);
+            return false;
+        }
+        return true;
+    }
 
-            ScannedItem existingItem = checkoutServices.findExistingItem(item.getName(), scannedItems);
-            if (existingItem != null && scannedItems.contains(existingItem)) {
-                checkoutServices.removeOrDecrementItem(existingItem, scannedItems, scannedItemsTable);
-                totalAmount -= item.getPrice();
-            }
-        } catch (Exception e) {
-            log.error("Error removing item with code {}: {}", code, e.getMessage());
-            logEmployee.createLog("Remove Item Error", "Error removing item with code " + code + ": " + e.getMessage());
+    /**
+     * Handles voiding the whole line of a scanned item.
+     * @param code The code of the item to be voided.
+     * @return True if the basket changed, false otherwise.
+     */
+    private boolean handleVoidLine(long code) {
+        if (!basket.remove(code)) {
+            log.warn("Item with code {} not found for voiding.", code);
+            logEmployee.createLog("Item Not Found for Void", "Attempted to void non-existent item with code: " + code);
+            return false;
         }
+        logEmployee.createLog("Line Voided", "Voided the line of item with code: " + code);
+        return true;
     }
 
     /**
-     * Finishes the transaction
+     * Finishes the transaction. The basket is handed to the basket pipeline and cleared right away,
+     * the outcome is reported once the pipeline has posted it. When the pipeline is full or unavailable
+     * the basket is committed here and the cashier waits for it.
      */
     private void finishTransaction() {
         try {
             Employee employee = Singleton.getInstance(Employee.class);
             Client client = clientBox.getValue();
-            Checkout managedCheckout = entityManagerWrapper.findEntityById(Checkout.class, checkout.getIdCheckout().intValue()).y();
-
-            Transaction transaction = checkoutServices.createTransaction(employee, client, checkout);
-            double totalAmount = checkoutServices.processScannedItems(transaction, scannedItems);
+            JournaledBasket captured = checkoutServices.captureBasket(employee, client, checkout, basket.getItems());
 
-            checkoutServices.finalizeTransaction(transaction, totalAmount);
-            checkoutServices.clearScannedItems(scannedItems);
-            checkoutServices.updateCheckoutCash(totalAmount, managedCheckout);
-
-            checkAndNotifyLowCash();
-            totalLabel.setText("0.00");
+            CompletableFuture<Pair<Boolean, BasketCommit>> posted = pipeline != null ? pipeline.submit(captured) : null;
+            if (posted != null) {
+                basket.clear();
+                totalLabel.setText(basket.formatTotal());
+                posted.thenAccept(result -> reportPosted(result, true));
+                return;
+            }
 
-            log.info("Transaction successfully finished.");
-            logEmployee.createLog("Transaction Finished", "Transaction successfully completed with total amount: " + totalAmount);
+            log.warn("Basket pipeline unavailable, committing the basket directly.");
+            Pair<Boolean, BasketCommit> result = checkoutServices.commitBasket(captured);
+            if (result.x()) {
+                basket.clear();
+                totalLabel.setText(basket.formatTotal());
+            }
+            reportPosted(result, false);
         } catch (Exception e) {
             log.error("Error finishing transaction: {}", e.getMessage());
             logEmployee.createLog("Transaction Error", "Error finishing transaction: " + e.getMessage());
@@ -168,22 +204,80 @@ public class CheckoutController {
     }
 
     /**
-     * Checks if the checkout's cash balance is below the threshold (250), and if so,
-     * sends a notification and logs the event.
+     * Reports the outcome of posting a basket to the lane.
+     *
+     * @param result The outcome of posting the basket.
+     * @param pipelined True if the basket went through the basket pipeline, which keeps a rejected basket for a
+     *                  manager; false if it was committed directly and stays in the lane.
+     */
+    private void reportPosted(Pair<Boolean, BasketCommit> result, boolean pipelined) {
+        if (!result.x()) {
+            List<ScannedItem> oversoldLines = result.y().oversoldLines();
+            for (ScannedItem oversold : oversoldLines) {
+                log.warn("Not enough stock for {} (quantity {}).", oversold.getName(), oversold.getQuantity());
+                logEmployee.createLog("Insufficient Stock", "Not enough stock for " + oversold.getName() + " (quantity " + oversold.getQuantity() + ")");
+            }
+            log.error("Transaction was rolled back.");
+            logEmployee.createLog("Transaction Error", "Transaction was rolled back.");
+            String kept = pipelined ? " It was kept for a manager to resolve." : " The basket is still open.";
+            if (!oversoldLines.isEmpty()) {
+                showAlert("A sale could not be posted: not enough stock for "
+                        + oversoldLines.stream().map(ScannedItem::getName).toList() + "." + kept);
+            } else if (result.y().failure() != null && !EntityManagerWrapper.isTransient(result.y().failure())) {
+                showAlert("A sale could not be posted: " + result.y().failure().getMessage() + "." + kept);
+            }
+            return;
+        }
+        BasketCommit commit = result.y();
+        checkout = commit.checkout();
+        checkAndNotifyLowCash();
+
+        log.info("Transaction successfully finished.");
+        logEmployee.createLog("Transaction Finished", "Transaction successfully completed with total amount: " + commit.totalAmount()
+                + " (" + commit.lines() + " lines committed in " + commit.latencyMillis() + " ms)");
+    }
+
+    /**
+     * Displays a warning to the cashier.
+     *
+     * @param message The message to be shown in the alert.
+     */
+    private void showAlert(String message) {
+        Alert alert = new Alert(Alert.AlertType.WARNING);
+        alert.setTitle("Checkout");
+        alert.setHeaderText(null);
+        alert.setContentText(message);
+        alert.show();
+    }
+
+    /**
+     * Passes the checkout's cash balance to the low cash monitor. Only when the balance drops below the
+     * threshold of the checkout is a notification sent and the event logged; a lane staying low sends nothing more.
      */
     private void checkAndNotifyLowCash() {
         try {
-            if (checkout.getCash() < 250) {
-                Notification notification = new Notification();
-                notification.setEmployee(loggedEmployee);
-                notification.setMessage("Checkout cash is below 250. Current balance: " + checkout.getCash());
-                notification.setStatus("Unread");
-                notification.setDateSent(Date.valueOf(LocalDate.now()));
+            long balanceMinor = CashLedger.toMinor(checkout.getCash());
+            CashThresholdMonitor.Transition transition = cashMonitor.update(checkout.getIdCheckout(), balanceMinor);
+            if (transition == CashThresholdMonitor.Transition.RECOVERED) {
+                log.info("Checkout cash recovered. Current balance: {}", checkout.getCash());
+            }
+            if (transition != CashThresholdMonitor.Transition.DROPPED) {
+                return;
+            }
 
+            double threshold = cashMonitor.getThreshold(checkout.getIdCheckout()) / 100.0;
+            String message = "Checkout cash is below " + threshold + ". Current balance: " + checkout.getCash();
+            Notification notification = new Notification();
+            notification.setEmployee(loggedEmployee);
+            notification.setMessage(message);
+            notification.setStatus("Unread");
+            notification.setDateSent(Date.valueOf(LocalDate.now()));
+
+            entityManagerWrapper.inTransaction(() -> {
                 entityManagerWrapper.genEntity(notification);
-                log.warn("Checkout cash is below 250. Current balance: {}", checkout.getCash());
-                logEmployee.createLog("Low Cash Warning", "Checkout cash is below 250. Current balance: " + checkout.getCash());
-            }
+                logEmployee.createLog("Low Cash Warning", message);
+            });
+            log.warn(message);
         } catch (Exception e) {
             log.error("Error checking low cash status: {}", e.getMessage());
             logEmployee.createLog("Low Cash Check Error", "Error during low cash check: " + e.getMessage());
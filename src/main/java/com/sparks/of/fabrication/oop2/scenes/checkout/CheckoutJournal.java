@@ -0,0 +1,306 @@
+package com.sparks.of.fabrication.oop2.scenes.checkout;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only, memory-mapped journal of completed baskets that have not been posted to the database yet.
+ * <p>
+ * The file starts with a header holding the offset of the oldest unposted record and the offset where the
+ * next record is written. Each record is its payload length, the payload and a CRC32 of the payload, so a
+ * torn record at the end is ignored on restart: every read checks the length and the checksum of a record
+ * and drops the journal from the first damaged record on. Appending only copies bytes into the mapped region and never
+ * waits for the disk, which keeps it cheap enough for the checkout critical path; the operating system writes
+ * the pages back, so journaled baskets survive a crash of the application.
+ */
+public class CheckoutJournal {
+
+    private static final Logger log = LogManager.getLogger(CheckoutJournal.class);
+    private static final int HEADER_SIZE = 16;
+    private static final int READ_OFFSET = 0;
+    private static final int WRITE_OFFSET = 8;
+    private static final int NULL_NAME = -1;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private int readOffset;
+    private int writeOffset;
+
+    /**
+     * Opens the journal file, creating it when missing, and maps it into memory.
+     *
+     * @param path The path of the journal file.
+     * @param capacity The size of the journal file in bytes.
+     * @throws IOException If the file cannot be opened or mapped.
+     */
+    public CheckoutJournal(Path path, int capacity) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+
+        readOffset = (int) buffer.getLong(READ_OFFSET);
+        writeOffset = (int) buffer.getLong(WRITE_OFFSET);
+        if (readOffset < HEADER_SIZE || writeOffset < readOffset || writeOffset > capacity) {
+            readOffset = HEADER_SIZE;
+            writeOffset = HEADER_SIZE;
+            writeHeader();
+        }
+        log.info("Opened checkout journal {} with {} unposted baskets.", path, pendingCount());
+    }
+
+    /**
+     * Appends a basket to the end of the journal.
+     *
+     * @param basket The basket to append.
+     * @return True if the basket was journaled, false if the journal is full.
+     */
+    public synchronized boolean append(JournaledBasket basket) {
+        byte[] payload = encode(basket);
+        int recordSize = Integer.BYTES + payload.length + Integer.BYTES;
+        if (writeOffset + recordSize > buffer.capacity()) {
+            compact();
+            if (writeOffset + recordSize > buffer.capacity()) {
+                log.error("Checkout journal is full, basket {} was not journaled.", basket.idempotencyKey());
+                return false;
+            }
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        buffer.putInt(writeOffset, payload.length);
+        buffer.put(writeOffset + Integer.BYTES, payload);
+        buffer.putInt(writeOffset + Integer.BYTES + payload.length, (int) crc.getValue());
+        writeOffset += recordSize;
+        writeHeader();
+        return true;
+    }
+
+    /**
+     * Reads the oldest basket that has not been posted yet.
+     *
+     * @return The oldest unposted basket, or null if every basket was posted.
+     */
+    public synchronized JournaledBasket peek() {
+        List<JournaledBasket> head = peekBatch(1);
+        return head.isEmpty() ? null : head.getFirst();
+    }
+
+    /**
+     * Reads the oldest baskets that have not been posted yet, in journal order, without removing them.
+     *
+     * @param max The maximum number of baskets to read.
+     * @return The oldest unposted baskets, empty if every basket was posted.
+     */
+    public synchronized List<JournaledBasket> peekBatch(int max) {
+        List<JournaledBasket> baskets = new ArrayList<>();
+        int offset = readOffset;
+        while (offset < writeOffset && baskets.size() < max) {
+            byte[] payload = readRecord(offset);
+            if (payload == null) {
+                break;
+            }
+            baskets.add(decode(payload));
+            offset += Integer.BYTES * 2 + payload.length;
+        }
+        return baskets;
+    }
+
+    /**
+     * Marks the oldest unposted basket as posted, if it is the basket with the given key.
+     * Checking the key keeps the inline checkout and the replayer from acknowledging the same record twice.
+     *
+     * @param idempotencyKey The key of the posted basket.
+     * @return True if the oldest basket had the key and was acknowledged, false otherwise.
+     */
+    public synchronized boolean acknowledge(String idempotencyKey) {
+        JournaledBasket head = peek();
+        if (head == null || !head.idempotencyKey().equals(idempotencyKey)) {
+            return false;
+        }
+        readOffset += Integer.BYTES * 2 + buffer.getInt(readOffset);
+        if (readOffset == writeOffset) {
+            readOffset = HEADER_SIZE;
+            writeOffset = HEADER_SIZE;
+        }
+        writeHeader();
+        return true;
+    }
+
+    /**
+     * Counts the baskets that have not been posted yet. Damaged records are checked for and dropped
+     * the same way {@link #peekBatch(int)} does.
+     *
+     * @return The number of unposted baskets.
+     */
+    public synchronized int pendingCount() {
+        int count = 0;
+        int offset = readOffset;
+        while (offset < writeOffset) {
+            byte[] payload = readRecord(offset);
+            if (payload == null) {
+                break;
+            }
+            count++;
+            offset += Integer.BYTES * 2 + payload.length;
+        }
+        return count;
+    }
+
+    /**
+     * Writes the journal pages to disk and closes the file.
+     */
+    public synchronized void close() {
+        try {
+            buffer.force();
+            channel.close();
+        } catch (IOException e) {
+            log.error("Error closing the checkout journal: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Reads the payload of the record at the given offset, checking its length against the written part of the
+     * journal and its checksum. A damaged record and everything after it are dropped.
+     *
+     * @param offset The offset of the record.
+     * @return The payload of the record, or null if the record was damaged.
+     */
+    private byte[] readRecord(int offset) {
+        int length = buffer.getInt(offset);
+        if (length <= 0 || length > writeOffset - offset - Integer.BYTES * 2) {
+            dropFrom(offset, "Corrupt checkout journal record");
+            return null;
+        }
+        byte[] payload = new byte[length];
+        buffer.get(offset + Integer.BYTES, payload);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        if ((int) crc.getValue() != buffer.getInt(offset + Integer.BYTES + length)) {
+            dropFrom(offset, "Checksum mismatch in checkout journal");
+            return null;
+        }
+        return payload;
+    }
+
+    /**
+     * Drops the damaged end of the journal, starting at the given record.
+     *
+     * @param offset The offset of the first damaged record.
+     * @param reason The problem found at the offset.
+     */
+    private void dropFrom(int offset, String reason) {
+        log.error("{} at offset {}, dropping the rest of the journal.", reason, offset);
+        writeOffset = offset;
+        if (readOffset == writeOffset) {
+            readOffset = HEADER_SIZE;
+            writeOffset = HEADER_SIZE;
+        }
+        writeHeader();
+    }
+
+    /**
+     * Moves the unposted records to the start of the journal to make room at the end.
+     */
+    private void compact() {
+        int pending = writeOffset - readOffset;
+        if (readOffset == HEADER_SIZE) {
+            return;
+        }
+        byte[] records = new byte[pending];
+        buffer.get(readOffset, records);
+        buffer.put(HEADER_SIZE, records);
+        readOffset = HEADER_SIZE;
+        writeOffset = HEADER_SIZE + pending;
+        writeHeader();
+    }
+
+    /**
+     * Stores the read and write offsets in the header.
+     */
+    private void writeHeader() {
+        buffer.putLong(READ_OFFSET, readOffset);
+        buffer.putLong(WRITE_OFFSET, writeOffset);
+    }
+
+    /**
+     * Encodes a basket into a journal payload. A line without a name is stored with the name length
+     * {@value #NULL_NAME}.
+     *
+     * @param basket The basket to encode.
+     * @return The payload bytes.
+     */
+    private static byte[] encode(JournaledBasket basket) {
+        List<byte[]> names = new ArrayList<>(basket.lines().size());
+        int size = Long.BYTES * 6 + Integer.BYTES;
+        for (ScannedItem line : basket.lines()) {
+            byte[] name = line.getName() != null ? line.getName().getBytes(StandardCharsets.UTF_8) : null;
+            names.add(name);
+            size += Long.BYTES + Double.BYTES + Integer.BYTES * 2 + (name != null ? name.length : 0);
+        }
+
+        UUID key = UUID.fromString(basket.idempotencyKey());
+        ByteBuffer payload = ByteBuffer.allocate(size);
+        payload.putLong(key.getMostSignificantBits()).putLong(key.getLeastSignificantBits());
+        payload.putLong(basket.employeeId()).putLong(basket.clientId()).putLong(basket.checkoutId());
+        payload.putLong(basket.saleDate().toEpochDay());
+        payload.putInt(basket.lines().size());
+        for (int i = 0; i < basket.lines().size(); i++) {
+            ScannedItem line = basket.lines().get(i);
+            payload.putLong(line.getId()).putDouble(line.getPrice()).putInt(line.getQuantity());
+            byte[] name = names.get(i);
+            if (name == null) {
+                payload.putInt(NULL_NAME);
+            } else {
+                payload.putInt(name.length).put(name);
+            }
+        }
+        return payload.array();
+    }
+
+    /**
+     * Decodes a journal payload into a basket.
+     *
+     * @param bytes The payload bytes.
+     * @return The decoded basket.
+     */
+    private static JournaledBasket decode(byte[] bytes) {
+        ByteBuffer payload = ByteBuffer.wrap(bytes);
+        String key = new UUID(payload.getLong(), payload.getLong()).toString();
+        long employeeId = payload.getLong();
+        long clientId = payload.getLong();
+        long checkoutId = payload.getLong();
+        LocalDate saleDate = LocalDate.ofEpochDay(payload.getLong());
+        int lineCount = payload.getInt();
+        List<ScannedItem> lines = new ArrayList<>(lineCount);
+        for (int i = 0; i < lineCount; i++) {
+            long id = payload.getLong();
+            double price = payload.getDouble();
+            int quantity = payload.getInt();
+            int nameLength = payload.getInt();
+            String name = null;
+            if (nameLength != NULL_NAME) {
+                byte[] nameBytes = new byte[nameLength];
+                payload.get(nameBytes);
+                name = new String(nameBytes, StandardCharsets.UTF_8);
+            }
+            lines.add(new ScannedItem(id, name, price, quantity));
+        }
+        return new JournaledBasket(key, employeeId, clientId, checkoutId, saleDate, lines);
+    }
+}
@@ -0,0 +1,242 @@
+package com.sparks.of.fabrication.oop2.scenes.checkout;
+
+import com.sparks.of.fabrication.oop2.models.Checkout;
+import com.sparks.of.fabrication.oop2.models.Client;
+import com.sparks.of.fabrication.oop2.models.Employee;
+import com.sparks.of.fabrication.oop2.utils.CashLedger;
+import com.sparks.of.fabrication.oop2.utils.CatalogItem;
+import com.sparks.of.fabrication.oop2.utils.ConnectionPool;
+import com.sparks.of.fabrication.oop2.utils.EntityManagerWrapper;
+import com.sparks.of.fabrication.oop2.utils.Env;
+import com.sparks.of.fabrication.oop2.utils.ItemCatalog;
+import com.sparks.of.fabrication.oop2.utils.LogEmployee;
+import com.sparks.of.fabrication.oop2.utils.Pair;
+import com.sparks.of.fabrication.oop2.utils.Singleton;
+import com.sparks.of.fabrication.oop2.utils.StockLevelMonitor;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Headless load generator simulating several checkout lanes against the configured database.
+ * <p>
+ * Every lane runs on its own virtual thread, scans random catalog items with exponentially distributed
+ * pauses between scans and finishes each basket through {@link CheckoutServices#commitBasket(JournaledBasket)},
+ * the same path a lane uses. At the end it reports scans and baskets per second and the p50/p99/p999 latency
+ * of finishing a basket, so changes can be compared and deployments sized.
+ * <p>
+ * Run it with {@code mvn javafx:run@load-test -Dloadtest.args="lanes seconds scanMillis basketSize"}.
+ * It uses the existing checkouts, employees, clients and items, and really sells the items, so it is meant
+ * for a local database only.
+ */
+public class CheckoutLoadGenerator {
+
+    private static final Logger log = LogManager.getLogger(CheckoutLoadGenerator.class);
+    private static final String CATALOG_ROWS = "SELECT new " + CatalogItem.class.getName()
+            + "(i.idItem, i.name, i.price, c.category) FROM Item i JOIN i.category c";
+
+    private final int lanes;
+    private final long durationMillis;
+    private final double meanScanMillis;
+    private final int meanBasketSize;
+
+    private final LongAdder scans = new LongAdder();
+    private final LongAdder baskets = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final List<long[]> laneLatencies = new ArrayList<>();
+
+    /**
+     * Creates a load generator.
+     *
+     * @param lanes The number of simulated lanes.
+     * @param durationSeconds How long the lanes run.
+     * @param meanScanMillis The mean pause between two scans.
+     * @param meanBasketSize The mean number of scans per basket.
+     */
+    public CheckoutLoadGenerator(int lanes, int durationSeconds, double meanScanMillis, int meanBasketSize) {
+        this.lanes = lanes;
+        this.durationMillis = TimeUnit.SECONDS.toMillis(durationSeconds);
+        this.meanScanMillis = meanScanMillis;
+        this.meanBasketSize = meanBasketSize;
+    }
+
+    /**
+     * Runs the load generator.
+     *
+     * @param args Optional: lanes (8), seconds (60), mean milliseconds between scans (300), mean basket size (12).
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int lanes = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 60;
+        double scanMillis = args.length > 2 ? Double.parseDouble(args[2]) : 300;
+        int basketSize = args.length > 3 ? Integer.parseInt(args[3]) : 12;
+
+        Env env = Singleton.getInstance(Env.class, new Env()).y();
+        EntityManagerWrapper entityManager = Singleton.getInstance(EntityManagerWrapper.class, new EntityManagerWrapper(env)).y();
+        Singleton.getInstance(ItemCatalog.class, new ItemCatalog());
+        Singleton.getInstance(CashLedger.class, new CashLedger(entityManager));
+        Singleton.getInstance(StockLevelMonitor.class, new StockLevelMonitor(env, entityManager));
+        try {
+            new CheckoutLoadGenerator(lanes, seconds, scanMillis, basketSize).run(entityManager);
+        } finally {
+            entityManager.cleanUp();
+        }
+    }
+
+    /**
+     * Loads the test data, runs the lanes until the duration is over and reports the results.
+     *
+     * @param entityManager The wrapper of the database under test.
+     */
+    private void run(EntityManagerWrapper entityManager) throws InterruptedException {
+        List<Checkout> checkouts = entityManager.findAllEntities(Checkout.class);
+        List<Client> clients = entityManager.findAllEntities(Client.class);
+        Pair<Boolean, List<CatalogItem>> items = entityManager.findProjection(CatalogItem.class, CATALOG_ROWS, Map.of(), 0);
+        if (checkouts.isEmpty() || clients.isEmpty() || !items.x() || items.y().isEmpty()) {
+            log.error("The database needs at least one checkout, client and item to generate load.");
+            return;
+        }
+        ItemCatalog itemCatalog = Singleton.getInstance(ItemCatalog.class);
+        items.y().forEach(itemCatalog::put);
+        long[] itemIds = items.y().stream().mapToLong(CatalogItem::id).toArray();
+
+        Singleton.getInstance(Employee.class, checkouts.getFirst().getEmployee());
+        LogEmployee.initializeLogEmployee();
+
+        log.info("Running {} lanes for {} s, {} ms between scans, {} scans per basket, over {} checkouts and {} items.",
+                lanes, durationMillis / 1000, meanScanMillis, meanBasketSize, checkouts.size(), itemIds.length);
+        long start = System.nanoTime();
+        long deadline = System.currentTimeMillis() + durationMillis;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int lane = 0; lane < lanes; lane++) {
+                Checkout checkout = checkouts.get(lane % checkouts.size());
+                Client client = clients.get(lane % clients.size());
+                long[] latencies = new long[1024];
+                laneLatencies.add(latencies);
+                int index = lane;
+                executor.submit(() -> runLane(index, checkout, client, itemIds, deadline));
+            }
+        }
+        report((System.nanoTime() - start) / 1e9, entityManager.getPoolStats());
+    }
+
+    /**
+     * Simulates one lane: scans baskets and finishes them until the deadline.
+     *
+     * @param lane The index of the lane.
+     * @param checkout The checkout of the lane.
+     * @param client The client buying at the lane.
+     * @param itemIds The ids of the items that can be scanned.
+     * @param deadline The time at which the lane stops, in epoch milliseconds.
+     */
+    private void runLane(int lane, Checkout checkout, Client client, long[] itemIds, long deadline) {
+        CheckoutServices checkoutServices = new CheckoutServices();
+        Basket basket = new Basket();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long[] latencies = laneLatencies.get(lane);
+        int count = 0;
+        try {
+            while (System.currentTimeMillis() < deadline) {
+                int basketSize = 1 + (int) pause(random, meanBasketSize - 1);
+                for (int i = 0; i < basketSize && System.currentTimeMillis() < deadline; i++) {
+                    Thread.sleep(pause(random, meanScanMillis));
+                    CatalogItem item = checkoutServices.fetchItem(itemIds[random.nextInt(itemIds.length)]);
+                    if (item != null) {
+                        basket.add(item);
+                        scans.increment();
+                    }
+                }
+                if (basket.isEmpty()) {
+                    continue;
+                }
+
+                long start = System.nanoTime();
+                JournaledBasket captured = checkoutServices.captureBasket(checkout.getEmployee(), client, checkout, basket.getItems());
+                Pair<Boolean, BasketCommit> result = checkoutServices.commitBasket(captured);
+                long latency = System.nanoTime() - start;
+                basket.clear();
+
+                if (!result.x()) {
+                    rejected.increment();
+                    continue;
+                }
+                if (count == latencies.length) {
+                    latencies = Arrays.copyOf(latencies, latencies.length * 2);
+                }
+                latencies[count++] = latency;
+                baskets.increment();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            synchronized (laneLatencies) {
+                laneLatencies.set(lane, Arrays.copyOf(latencies, count));
+            }
+        }
+    }
+
+    /**
+     * Draws an exponentially distributed pause, the time between independent arrivals.
+     *
+     * @param random The random source of the lane.
+     * @param mean The mean of the distribution.
+     * @return The drawn value, rounded down.
+     */
+    private static long pause(ThreadLocalRandom random, double mean) {
+        return (long) (-mean * Math.log(1 - random.nextDouble()));
+    }
+
+    /**
+     * Writes the throughput and finish latency percentiles to the log.
+     *
+     * @param seconds The measured run time in seconds.
+     * @param poolStats The connection pool usage at the end of the run.
+     */
+    private void report(double seconds, ConnectionPool.Stats poolStats) {
+        long[] all;
+        synchronized (laneLatencies) {
+            all = laneLatencies.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        }
+        log.info("Lanes: {}, run time: {} s", lanes, String.format("%.1f", seconds));
+        log.info("Scans: {} ({} scans/s)", scans.sum(), String.format("%.1f", scans.sum() / seconds));
+        log.info("Baskets: {} ({} baskets/s), rejected: {}", baskets.sum(), String.format("%.2f", baskets.sum() / seconds), rejected.sum());
+        log.info("Finish latency: p50={} ms p99={} ms p999={} ms max={} ms",
+                millis(percentile(all, 0.50)), millis(percentile(all, 0.99)), millis(percentile(all, 0.999)),
+                millis(all.length == 0 ? 0 : all[all.length - 1]));
+        log.info("Connection pool: {}", poolStats);
+    }
+
+    /**
+     * Gets a percentile of sorted values by the nearest-rank method.
+     *
+     * @param sorted The values in ascending order.
+     * @param quantile The percentile between 0 and 1.
+     * @return The value at the percentile, or zero if there are no values.
+     */
+    private static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(quantile * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    /**
+     * Formats a duration in nanoseconds as milliseconds.
+     *
+     * @param nanos The duration in nanoseconds.
+     * @return The duration in milliseconds with two decimals.
+     */
+    private static String millis(long nanos) {
+        return String.format("%.2f", nanos / 1e6);
+    }
+}
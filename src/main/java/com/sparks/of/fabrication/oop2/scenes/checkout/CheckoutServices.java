@@ -2,16 +2,32 @@ package com.sparks.of.fabrication.oop2.scenes.checkout;
 
 import com.sparks.of.fabrication.oop2.utils.Singleton;
 import com.sparks.of.fabrication.oop2.models.*;
+import com.sparks.of.fabrication.oop2.utils.AsyncEntityManagerWrapper;
+import com.sparks.of.fabrication.oop2.utils.CashLedger;
+import com.sparks.of.fabrication.oop2.utils.CatalogItem;
 import com.sparks.of.fabrication.oop2.utils.EntityManagerWrapper;
+import com.sparks.of.fabrication.oop2.utils.Env;
+import com.sparks.of.fabrication.oop2.utils.ItemCatalog;
 import com.sparks.of.fabrication.oop2.utils.LogEmployee;
+import com.sparks.of.fabrication.oop2.utils.Pair;
+import com.sparks.of.fabrication.oop2.utils.QueryRegistry;
+import com.sparks.of.fabrication.oop2.utils.StockLevel;
+import com.sparks.of.fabrication.oop2.utils.StockLevelMonitor;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import javafx.scene.control.TableView;
-
+import java.io.IOException;
 import java.lang.reflect.Field;
+import java.nio.file.Path;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
 
 /**
  * Provides business logic and services related to managing a checkout process. This includes creating
@@ -21,227 +37,306 @@ public class CheckoutServices {
 
     private EntityManagerWrapper entityManagerWrapper = Singleton.getInstance(EntityManagerWrapper.class);
     private static final Logger log = LogManager.getLogger(CheckoutServices.class);
+    private static final String DECREMENT_STOCK = "UPDATE item SET quantity = quantity - ? WHERE id_item = ? AND quantity >= ?";
+    private static final String STOCK_LEVELS = "SELECT new " + StockLevel.class.getName()
+            + "(i.idItem, i.name, c.category, i.quantity) FROM Item i LEFT JOIN i.category c WHERE i.idItem IN :ids";
     private final LogEmployee logEmployee = Singleton.getInstance(LogEmployee.class);
+    private final ItemCatalog itemCatalog = Singleton.getInstance(ItemCatalog.class);
+    private final CashLedger cashLedger = Singleton.getInstance(CashLedger.class);
+    private final StockLevelMonitor stockLevelMonitor = Singleton.getInstance(StockLevelMonitor.class);
 
     /**
-     * Creates a new transaction.
+     * Commits a whole basket as one batched database transaction: the transaction, all of its details,
+     * the stock decrements and the sale in the cash ledger are written together or not at all.
+     * The items of the basket are loaded with a single query and all writes are flushed in JDBC batches.
+     * If any line has more quantity than is left in stock, nothing is written and the line is reported
+     * in {@link BasketCommit#oversoldLines()}. A basket whose idempotency key was already posted is not
+     * written again and is reported as {@link BasketCommit#duplicate()}.
      *
-     * @param employee The employee handling the transaction.
-     * @param client The client making the purchase.
-     * @param checkout The current checkout instance.
-     * @return The created `Transaction` entity.
-     * @throws Exception If an error occurs during transaction creation.
+     * @param basket The basket to commit.
+     * @return A Pair containing a success flag and the committed basket.
      */
-    protected Transaction createTransaction(Employee employee, Client client, Checkout checkout) {
-        try {
-            Transaction transaction = new Transaction();
-            transaction.setClient(client);
-            transaction.setEmployee(employee);
-            transaction.setCheckout(checkout);
-            transaction.setTransactionDate(LocalDate.now());
-            transaction.setTotalAmount(0.0);
-            entityManagerWrapper.genEntity(transaction);
+    protected Pair<Boolean, BasketCommit> commitBasket(JournaledBasket basket) {
+        long start = System.nanoTime();
+        List<ScannedItem> scannedItems = basket.lines();
+        List<ScannedItem> oversoldLines = new ArrayList<>();
+        Pair<Boolean, BasketCommit> result = entityManagerWrapper.inTransaction(() -> {
+            Checkout managedCheckout = entityManagerWrapper.findEntityById(Checkout.class, (int) basket.checkoutId()).y();
+            if (isPosted(basket.idempotencyKey())) {
+                return new BasketCommit(managedCheckout, null, 0.0, scannedItems.size(), 0, List.of(), true, null);
+            }
+            Map<Long, Integer> sold = decrementStock(scannedItems, oversoldLines);
+            reportStockLevels(sold);
+            Map<Long, Item> items = fetchBasketItems(scannedItems);
 
-            return transaction;
-        } catch (Exception e) {
-            log.error("Error creating transaction: {}", e.getMessage());
-            logEmployee.createLog("Transaction Creation Error", "Error creating transaction: " + e.getMessage());
-            throw e;
+            Employee employee = entityManagerWrapper.findEntityById(Employee.class, (int) basket.employeeId()).y();
+            Client client = entityManagerWrapper.findEntityById(Client.class, (int) basket.clientId()).y();
+            Transaction transaction = createTransaction(employee, client, managedCheckout);
+            transaction.setTransactionDate(basket.saleDate());
+            transaction.setIdempotencyKey(basket.idempotencyKey());
+            List<Object> pendingEntities = new ArrayList<>();
+            pendingEntities.add(transaction);
+
+            double totalAmount = 0.0;
+            for (ScannedItem scannedItem : scannedItems) {
+                Item dbItem = items.get(scannedItem.getId());
+                if (dbItem == null) {
+                    throw new IllegalStateException("Item " + scannedItem.getName() + " no longer exists");
+                }
+                TransactionDetail detail = createTransactionDetail(transaction, scannedItem, dbItem);
+                pendingEntities.add(detail);
+                totalAmount += detail.getPrice();
+            }
+
+            transaction.setTotalAmount(totalAmount);
+            if (!entityManagerWrapper.genEntities(pendingEntities)) {
+                throw new IllegalStateException("Could not write the basket");
+            }
+            Pair<Boolean, Long> balance = cashLedger.record(managedCheckout, employee, CashMovementType.SALE,
+                    CashLedger.toMinor(totalAmount), basket.idempotencyKey());
+            if (!balance.x()) {
+                throw new IllegalStateException("Could not record the sale in the cash ledger");
+            }
+            managedCheckout.setCash(balance.y() / 100.0);
+            return new BasketCommit(managedCheckout, transaction, totalAmount, scannedItems.size(), 0, List.of(), false, null);
+        });
+        long latencyMillis = (System.nanoTime() - start) / 1_000_000;
+
+        if (!result.x()) {
+            Exception failure = entityManagerWrapper.getTransactionFailure();
+            log.error("Basket of {} lines rolled back after {} ms: {}", scannedItems.size(), latencyMillis,
+                    failure != null ? failure.getMessage() : "unknown cause");
+            return new Pair<>(false, new BasketCommit(null, null, 0.0, scannedItems.size(), latencyMillis, oversoldLines, false, failure));
         }
+        BasketCommit commit = result.y();
+        log.info("Basket of {} lines committed in {} ms", commit.lines(), latencyMillis);
+        return new Pair<>(true, new BasketCommit(commit.checkout(), commit.transaction(), commit.totalAmount(), commit.lines(),
+                latencyMillis, List.of(), commit.duplicate(), null));
     }
 
     /**
-     * Processes the scanned items.
+     * Group-commits several baskets in one database transaction, see {@link #commitBasket(JournaledBasket)}.
+     * If any basket fails, none of them is written.
      *
-     * @param transaction The current transaction being processed.
-     * @param scannedItems The list of scanned items.
-     * @return The total amount of the transaction.
-     * @throws Exception If an error occurs while processing scanned items.
+     * @param baskets The baskets to commit, in order.
+     * @return A Pair containing a success flag and the committed baskets, in the same order.
      */
-    protected double processScannedItems(Transaction transaction, List<ScannedItem> scannedItems) {
-        double totalAmount = 0.0;
-        try {
-            for (ScannedItem scannedItem : scannedItems) {
-                Item dbItem = updateItemStock(scannedItem);
-                totalAmount += createTransactionDetail(transaction, scannedItem, dbItem);
+    protected Pair<Boolean, List<BasketCommit>> commitBaskets(List<JournaledBasket> baskets) {
+        long start = System.nanoTime();
+        Pair<Boolean, List<BasketCommit>> result = entityManagerWrapper.inTransaction(() -> {
+            List<BasketCommit> commits = new ArrayList<>(baskets.size());
+            for (JournaledBasket basket : baskets) {
+                Pair<Boolean, BasketCommit> commit = commitBasket(basket);
+                if (!commit.x()) {
+                    throw new IllegalStateException("Basket " + basket.idempotencyKey() + " could not be committed");
+                }
+                commits.add(commit.y());
             }
-            return totalAmount;
-        } catch (Exception e) {
-            log.error("Error processing scanned items: {}", e.getMessage());
-            logEmployee.createLog("Processing Scanned Items Error", "Error processing scanned items: " + e.getMessage());
-            throw e;
+            return commits;
+        });
+        long latencyMillis = (System.nanoTime() - start) / 1_000_000;
+        if (result.x()) {
+            log.info("Group-committed {} baskets in {} ms", baskets.size(), latencyMillis);
         }
+        return result;
     }
 
     /**
-     * Updates the stock for the item associated with the scanned item.
+     * Checks whether a basket was already posted under the given idempotency key.
      *
-     * @param scannedItem The scanned item whose stock needs to be updated.
-     * @return The updated `Item` entity.
-     * @throws Exception If an error occurs while updating the item stock.
+     * @param idempotencyKey The key of the basket.
+     * @return True if a transaction with the key exists, false otherwise.
      */
-    protected Item updateItemStock(ScannedItem scannedItem) {
-        try {
-            Item dbItem = entityManagerWrapper.findEntityById(Item.class, scannedItem.getId().intValue()).y();
-            dbItem.setQuantity(dbItem.getQuantity() - scannedItem.getQuantity());
-            entityManagerWrapper.genEntity(dbItem);
-
-            return dbItem;
-        } catch (Exception e) {
-            log.error("Error updating item stock for item ID {}: {}", scannedItem.getId(), e.getMessage());
-            logEmployee.createLog("Item Stock Update Error", "Error updating item stock for item ID " + scannedItem.getId() + ": " + e.getMessage());
-            throw e;
+    private boolean isPosted(String idempotencyKey) {
+        Field field = QueryRegistry.field(Transaction.class, "idempotencyKey");
+        Pair<Boolean, List<Transaction>> posted = entityManagerWrapper.findEntityByValAll(Transaction.class, field, idempotencyKey);
+        if (!posted.x()) {
+            throw new IllegalStateException("Could not check the idempotency key " + idempotencyKey);
         }
+        return !posted.y().isEmpty();
     }
 
     /**
-     * Creates a transaction detail for a scanned item and updates the transaction.
+     * Reads the stock left of every basket item after the decrement and hands it to the low stock monitor
+     * once the basket has committed. The decrement still holds the row locks, so the quantity read is exactly
+     * the one this basket left, and the quantity before is that plus the quantity sold.
      *
-     * @param transaction The current transaction.
-     * @param scannedItem The scanned item.
-     * @param dbItem The corresponding item from the database.
-     * @return The price of the scanned item for the transaction.
-     * @throws Exception If an error occurs while creating the transaction detail.
+     * @param sold The quantity sold by item id.
      */
-    protected double createTransactionDetail(Transaction transaction, ScannedItem scannedItem, Item dbItem) {
-        try {
-            TransactionDetail transactionDetail = new TransactionDetail();
-            transactionDetail.setTransaction(transaction);
-            transactionDetail.setItem(dbItem);
-            transactionDetail.setQuantity(scannedItem.getQuantity());
-            transactionDetail.setPrice(scannedItem.getPrice() * scannedItem.getQuantity());
-            entityManagerWrapper.genEntity(transactionDetail);
-
-            return dbItem.getPrice() * scannedItem.getQuantity();
-        } catch (Exception e) {
-            log.error("Error creating transaction detail for item {}: {}", dbItem.getName(), e.getMessage());
-            logEmployee.createLog("Transaction Detail Error", "Error creating transaction detail for item: " + dbItem.getName() + ": " + e.getMessage());
-            throw e;
+    private void reportStockLevels(Map<Long, Integer> sold) {
+        Pair<Boolean, List<StockLevel>> levels = entityManagerWrapper.findProjection(StockLevel.class, STOCK_LEVELS,
+                Map.of("ids", sold.keySet()), 0);
+        if (!levels.x()) {
+            log.warn("Could not read the stock levels of the basket items.");
+            return;
         }
+        entityManagerWrapper.afterCommit(() -> stockLevelMonitor.recordSales(levels.y(), sold));
     }
 
     /**
-     * Finalizes a transaction.
+     * Loads the items of all scanned lines with a single query.
      *
-     * @param transaction The transaction to finalize.
-     * @param totalAmount The total amount for the transaction.
-     * @throws Exception If an error occurs while finalizing the transaction.
+     * @param scannedItems The scanned items of the basket.
+     * @return The items keyed by their id.
      */
-    protected void finalizeTransaction(Transaction transaction, double totalAmount) {
-        try {
-            transaction.setTotalAmount(totalAmount);
-            entityManagerWrapper.genEntity(transaction);
-        } catch (Exception e) {
-            log.error("Error finalizing transaction: {}", e.getMessage());
-            logEmployee.createLog("Transaction Finalization Error", "Error finalizing transaction: " + e.getMessage());
-            throw e;
+    private Map<Long, Item> fetchBasketItems(List<ScannedItem> scannedItems) {
+        Set<Long> ids = new HashSet<>();
+        for (ScannedItem scannedItem : scannedItems) {
+            ids.add(scannedItem.getId());
+        }
+        Pair<Boolean, List<Item>> items = entityManagerWrapper.findEntitiesByValIn(Item.class, QueryRegistry.field(Item.class, "idItem"), ids);
+        if (!items.x()) {
+            throw new IllegalStateException("Could not load the basket items");
         }
+        Map<Long, Item> itemsById = new HashMap<>();
+        for (Item item : items.y()) {
+            itemsById.put(item.getIdItem(), item);
+        }
+        return itemsById;
     }
 
     /**
-     * Clears the list of scanned items.
+     * Creates a new transaction, written to the database with the rest of the basket.
      *
-     * @param scannedItems The list of scanned items to clear.
-     * @throws Exception If an error occurs while clearing the scanned items.
+     * @param employee The employee handling the transaction.
+     * @param client The client making the purchase.
+     * @param checkout The current checkout instance.
+     * @return The created `Transaction` entity.
      */
-    protected void clearScannedItems(List<ScannedItem> scannedItems) {
-        try {
-            scannedItems.clear();
-        } catch (Exception e) {
-            log.error("Error clearing scanned items: {}", e.getMessage());
-            logEmployee.createLog("Clearing Scanned Items Error", "Error clearing scanned items: " + e.getMessage());
-            throw e;
-        }
+    protected Transaction createTransaction(Employee employee, Client client, Checkout checkout) {
+        Transaction transaction = new Transaction();
+        transaction.setClient(client);
+        transaction.setEmployee(employee);
+        transaction.setCheckout(checkout);
+        transaction.setTransactionDate(LocalDate.now());
+        transaction.setTotalAmount(0.0);
+        return transaction;
     }
 
     /**
-     * Updates the cash in the checkout based on the total amount of the transaction.
+     * Decreases the stock of every basket item in the database with a conditional update that only
+     * succeeds while enough stock is left, so concurrent lanes can never lose a sale or oversell.
+     * Items are updated in ascending id order, so two lanes always lock shared rows in the same order
+     * and cannot deadlock. All updates go to the database as one JDBC batch.
      *
-     * @param totalAmount The total amount for the transaction.
-     * @param checkout The checkout to update.
-     * @throws Exception If an error occurs while updating the checkout cash.
+     * @param scannedItems The scanned items of the basket.
+     * @param oversoldLines Receives the lines that had more quantity than was left in stock.
+     * @return The quantity sold by item id.
+     * @throws IllegalStateException If a line was oversold, to roll the basket back.
      */
-    protected void updateCheckoutCash(double totalAmount, Checkout checkout) {
-        try {
-            checkout.setCash(checkout.getCash() + totalAmount);
-            entityManagerWrapper.genEntity(checkout);
-        } catch (Exception e) {
-            log.error("Error updating checkout cash: {}", e.getMessage());
-            logEmployee.createLog("Checkout Cash Update Error", "Error updating checkout cash: " + e.getMessage());
-            throw e;
+    protected Map<Long, Integer> decrementStock(List<ScannedItem> scannedItems, List<ScannedItem> oversoldLines) {
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (ScannedItem scannedItem : scannedItems) {
+            quantities.merge(scannedItem.getId(), scannedItem.getQuantity(), Integer::sum);
+        }
+        List<Long> ids = new ArrayList<>(quantities.keySet());
+        List<Object[]> rows = new ArrayList<>();
+        for (Long id : ids) {
+            int quantity = quantities.get(id);
+            rows.add(new Object[]{quantity, id, quantity});
         }
+
+        Pair<Boolean, int[]> updated = entityManagerWrapper.executeBatchUpdate(DECREMENT_STOCK, rows);
+        if (!updated.x()) {
+            throw new IllegalStateException("Could not update the stock");
+        }
+        oversoldLines.clear();
+        for (int i = 0; i < ids.size(); i++) {
+            if (updated.y()[i] == 0) {
+                Long id = ids.get(i);
+                scannedItems.stream().filter(item -> item.getId().equals(id)).forEach(oversoldLines::add);
+            }
+        }
+        if (!oversoldLines.isEmpty()) {
+            throw new IllegalStateException("Not enough stock for " + oversoldLines.size() + " basket lines");
+        }
+        return quantities;
     }
 
     /**
-     * Fetches an item by its id.
+     * Creates a transaction detail for a scanned item. The line is priced from the database item, like the
+     * transaction total and the sale in the cash ledger, since the price the lane scanned may be out of date.
      *
-     * @param code The id of the item to fetch.
-     * @return The item corresponding to the id, or null if not found or the id is invalid.
+     * @param transaction The current transaction.
+     * @param scannedItem The scanned item.
+     * @param dbItem The corresponding item from the database.
+     * @return The created `TransactionDetail` entity.
      */
-    protected Item fetchItemByCode(String code) {
-        try {
-            return entityManagerWrapper.findEntityById(Item.class, Integer.parseInt(code)).y();
-        } catch (NumberFormatException e) {
-            log.warn("Invalid code format: {}", code);
-            logEmployee.createLog("Invalid Code Format", "Attempted to fetch item with invalid code: " + code);
-            return null;
-        }
+    protected TransactionDetail createTransactionDetail(Transaction transaction, ScannedItem scannedItem, Item dbItem) {
+        TransactionDetail transactionDetail = new TransactionDetail();
+        transactionDetail.setTransaction(transaction);
+        transactionDetail.setItem(dbItem);
+        transactionDetail.setQuantity(scannedItem.getQuantity());
+        transactionDetail.setPrice(dbItem.getPrice() * scannedItem.getQuantity());
+        return transactionDetail;
     }
 
     /**
-     * Finds an existing scanned item in the list of scanned items based on the item name.
+     * Captures a completed basket under a new idempotency key, ready to be journaled and posted.
      *
-     * @param name The name of the item to find.
-     * @param scannedItems The list of scanned items.
-     * @return The found `ScannedItem`, or null if not found.
+     * @param employee The employee handling the transaction.
+     * @param client The client making the purchase.
+     * @param checkout The current checkout instance.
+     * @param scannedItems The scanned items of the basket.
+     * @return The captured basket.
      */
-    protected ScannedItem findExistingItem(String name, List<ScannedItem> scannedItems) {
-        return scannedItems.stream()
-                .filter(item -> item.getName().equals(name))
-                .findFirst()
-                .orElse(null);
+    protected JournaledBasket captureBasket(Employee employee, Client client, Checkout checkout, List<ScannedItem> scannedItems) {
+        return new JournaledBasket(UUID.randomUUID().toString(), employee.getId(), client.getId(),
+                checkout.getIdCheckout(), LocalDate.now(), List.copyOf(scannedItems));
     }
 
     /**
-     * Adds a new item to the scanned items list.
+     * Opens the checkout journal and the journal of rejected baskets and starts the basket pipeline,
+     * the first time a checkout is opened.
      *
-     * @param item The item to add.
-     * @param scannedItems The list of scanned items.
+     * @return The basket pipeline, or null if a journal could not be opened.
      */
-    protected void addNewItemToScannedList(Item item, List<ScannedItem> scannedItems) {
-        ScannedItem newItem = createScannedItem(item);
-        scannedItems.add(newItem);
+    protected BasketPipeline openPipeline() {
+        BasketPipeline pipeline = Singleton.getInstance(BasketPipeline.class);
+        if (pipeline != null) {
+            return pipeline;
+        }
+        try {
+            Env env = Singleton.getInstance(Env.class);
+            CheckoutJournal journal = Singleton.getInstance(CheckoutJournal.class,
+                    new CheckoutJournal(Path.of(env.getCheckoutJournalPath()), env.getCheckoutJournalCapacity())).y();
+            CheckoutJournal rejected = new CheckoutJournal(Path.of(env.getRejectedBasketsPath()), env.getCheckoutJournalCapacity());
+            pipeline = Singleton.getInstance(BasketPipeline.class, new BasketPipeline(journal, rejected)).y();
+            pipeline.start();
+            return pipeline;
+        } catch (IOException e) {
+            log.error("Could not open the checkout journal: {}", e.getMessage());
+            logEmployee.createLog("Journal Error", "Could not open the checkout journal: " + e.getMessage());
+            return null;
+        }
     }
 
     /**
-     * Creates a new scanned item based on the provided item.
-     *
-     * @param item The item to create a scanned item for.
-     * @return The created `ScannedItem`.
+     * Starts loading the item catalog of this lane in the background.
      */
-    protected ScannedItem createScannedItem(Item item) {
-        ScannedItem scannedItem = new ScannedItem();
-        scannedItem.setId(item.getIdItem());
-        scannedItem.setName(item.getName());
-        scannedItem.setPrice(item.getPrice());
-        scannedItem.setQuantity(1);
-        return scannedItem;
+    protected void warmItemCatalog() {
+        itemCatalog.warm(Singleton.getInstance(AsyncEntityManagerWrapper.class));
     }
 
     /**
-     * Removes or decrements the quantity of a scanned item from the list.
+     * Fetches an item by its id, from the lane's item catalog when possible and from the database otherwise.
      *
-     * @param item The scanned item to remove or decrement.
-     * @param scannedItems The list of scanned items.
-     * @param scannedItemsList The TableView that displays the scanned items.
+     * @param id The id of the item to fetch.
+     * @return The item corresponding to the id, or null if not found.
      */
-    protected void removeOrDecrementItem(ScannedItem item, List<ScannedItem> scannedItems, TableView<ScannedItem> scannedItemsList) {
-        if (item.getQuantity() > 1) {
-            item.setQuantity(item.getQuantity() - 1);
-        } else {
-            scannedItems.remove(item);
+    protected CatalogItem fetchItem(long id) {
+        CatalogItem cached = itemCatalog.get(id);
+        if (cached != null) {
+            return cached;
+        }
+        Item item = entityManagerWrapper.findEntityById(Item.class, id).y();
+        if (item == null) {
+            return null;
         }
-        scannedItemsList.refresh();
+        CatalogItem catalogItem = new CatalogItem(item.getIdItem(), item.getName(), item.getPrice(),
+                item.getCategory() != null ? item.getCategory().getCategory() : null);
+        itemCatalog.put(catalogItem);
+        return catalogItem;
     }
 
     /**
@@ -251,30 +346,56 @@ public class CheckoutServices {
      * @return The `Checkout` entity associated with the employee.
      */
     protected Checkout findCheckout(Employee loggedEmployee) throws NoSuchFieldException {
-        Field field = Checkout.class.getDeclaredField("employee");
+        Field field = QueryRegistry.field(Checkout.class, "employee");
         return entityManagerWrapper.findEntityByVal(Checkout.class, field, loggedEmployee).y();
     }
 
     /**
-     * Adds an amount to the checkout cash.
+     * Puts cash into the drawer of the checkout ("+++").
+     *
+     * @param amountMinor The amount to add in cents.
+     * @param checkout The checkout to update.
+     */
+    protected void handleAddToCheckout(long amountMinor, Checkout checkout) {
+        recordCashMovement(checkout, CashMovementType.CASH_IN, amountMinor);
+    }
+
+    /**
+     * Takes cash out of the drawer of the checkout ("---").
      *
-     * @param amount The amount to add.
+     * @param amountMinor The amount to remove in cents.
      * @param checkout The checkout to update.
      */
-    protected void handleAddToCheckout(double amount, Checkout checkout) {
-        checkout.setCash(checkout.getCash() + amount);
-        entityManagerWrapper.genEntity(checkout);
+    protected void handleRemoveFromCheckout(long amountMinor, Checkout checkout) {
+        recordCashMovement(checkout, CashMovementType.CASH_OUT, -amountMinor);
     }
 
     /**
-     * Removes an amount from the checkout cash.
+     * Appends a cash movement made by the logged employee and refreshes the balance shown for the checkout.
      *
-     * @param amount The amount to remove.
      * @param checkout The checkout to update.
+     * @param type The reason of the movement.
+     * @param amountMinor The signed amount in cents.
      */
-    protected void handleRemoveFromCheckout(double amount, Checkout checkout) {
-        checkout.setCash(checkout.getCash() - amount);
-        entityManagerWrapper.genEntity(checkout);
+    private void recordCashMovement(Checkout checkout, CashMovementType type, long amountMinor) {
+        Pair<Boolean, Long> balance = cashLedger.record(checkout, Singleton.getInstance(Employee.class), type, amountMinor, null);
+        if (!balance.x()) {
+            logEmployee.createLog("Cash Movement Error", "Could not record " + type + " of " + amountMinor / 100.0);
+            return;
+        }
+        checkout.setCash(balance.y() / 100.0);
+    }
+
+    /**
+     * Starts the shift of the lane on its checkout, so its cash can be reconciled when the lane closes.
+     *
+     * @param checkout The checkout of the lane.
+     */
+    protected void openShift(Checkout checkout) {
+        Pair<Boolean, Long> balance = cashLedger.openShift(checkout);
+        if (balance.x()) {
+            checkout.setCash(balance.y() / 100.0);
+        }
     }
 
     /**
@@ -0,0 +1,18 @@
+package com.sparks.of.fabrication.oop2.scenes.checkout;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * A completed basket as written to the checkout journal, holding everything needed to post it later.
+ *
+ * @param idempotencyKey The unique key of the sale, stored with the transaction so it is never posted twice.
+ * @param employeeId     The id of the employee who made the sale.
+ * @param clientId       The id of the client of the sale.
+ * @param checkoutId     The id of the checkout the sale was made at.
+ * @param saleDate       The date of the sale.
+ * @param lines          The lines of the basket.
+ */
+public record JournaledBasket(String idempotencyKey, long employeeId, long clientId, long checkoutId, LocalDate saleDate,
+                              List<ScannedItem> lines) {
+}
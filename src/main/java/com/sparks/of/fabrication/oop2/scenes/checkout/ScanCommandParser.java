@@ -0,0 +1,274 @@
+package com.sparks.of.fabrication.oop2.scenes.checkout;
+
+/**
+ * Decodes the text a scanner or cashier enters into the scan field of a lane.
+ * <p>
+ * One input event may hold several commands separated by whitespace, ',' or ';', as a fast scanner gun sends
+ * them. The commands are:
+ * <ul>
+ *     <li>{@code 1234} or {@code +1234}: add one unit of item 1234; {@code +5*1234} adds five units.</li>
+ *     <li>{@code -1234}: remove one unit of item 1234; {@code -5*1234} removes five units.</li>
+ *     <li>{@code !1234}: void the whole line of item 1234; {@code !!} voids the whole basket.</li>
+ *     <li>{@code +++12.50} and {@code ---12.50}: put cash into or take cash out of the drawer.</li>
+ * </ul>
+ * The parser reads the characters in place and stores the commands in arrays it reuses for every event,
+ * so decoding a scan allocates nothing. The results are valid until the next call to {@link #parse(CharSequence)}.
+ * An instance is meant for a single lane and is not thread-safe.
+ */
+public class ScanCommandParser {
+
+    /**
+     * The kinds of scan commands.
+     */
+    public enum Kind {
+        ADD, REMOVE, VOID_LINE, VOID_BASKET, CASH_IN, CASH_OUT
+    }
+
+    /**
+     * The maximum number of commands decoded from one input event.
+     */
+    public static final int MAX_COMMANDS = 64;
+    private static final int MAX_QUANTITY = 9999;
+    private static final int MAX_CODE_DIGITS = 18;
+    private static final int MAX_AMOUNT_DIGITS = 12;
+
+    private final Kind[] kinds = new Kind[MAX_COMMANDS];
+    private final long[] values = new long[MAX_COMMANDS];
+    private final int[] quantities = new int[MAX_COMMANDS];
+    private int count;
+    private int errorStart;
+    private int errorEnd;
+    private int invalidCommands;
+
+    /**
+     * Decodes one input event. Invalid commands are skipped; the first one is reported by
+     * {@link #errorStart()} and {@link #errorEnd()}.
+     *
+     * @param input The text of the event.
+     * @return The number of decoded commands.
+     */
+    public int parse(CharSequence input) {
+        count = 0;
+        errorStart = -1;
+        errorEnd = -1;
+        invalidCommands = 0;
+        int length = input.length();
+        int position = 0;
+        while (position < length) {
+            while (position < length && isSeparator(input.charAt(position))) {
+                position++;
+            }
+            if (position == length) {
+                break;
+            }
+            int end = position;
+            while (end < length && !isSeparator(input.charAt(end))) {
+                end++;
+            }
+            if (count == MAX_COMMANDS || !parseCommand(input, position, end)) {
+                invalidCommands++;
+                if (errorStart < 0) {
+                    errorStart = position;
+                    errorEnd = end;
+                }
+            }
+            position = end;
+        }
+        return count;
+    }
+
+    /**
+     * Gets the kind of a decoded command.
+     *
+     * @param index The index of the command.
+     * @return The kind of the command.
+     */
+    public Kind kind(int index) {
+        return kinds[index];
+    }
+
+    /**
+     * Gets the item code of an item command.
+     *
+     * @param index The index of the command.
+     * @return The id of the item, or zero for {@link Kind#VOID_BASKET} and cash commands.
+     */
+    public long code(int index) {
+        return kinds[index] == Kind.CASH_IN || kinds[index] == Kind.CASH_OUT ? 0 : values[index];
+    }
+
+    /**
+     * Gets the amount of a cash command.
+     *
+     * @param index The index of the command.
+     * @return The amount in cents, or zero for item commands.
+     */
+    public long amountMinor(int index) {
+        return kinds[index] == Kind.CASH_IN || kinds[index] == Kind.CASH_OUT ? values[index] : 0;
+    }
+
+    /**
+     * Gets the quantity of an add or remove command.
+     *
+     * @param index The index of the command.
+     * @return The number of units, one unless a multiplier was given.
+     */
+    public int quantity(int index) {
+        return quantities[index];
+    }
+
+    /**
+     * Checks whether the last event held invalid commands.
+     *
+     * @return True if at least one command was skipped, false otherwise.
+     */
+    public boolean hasError() {
+        return invalidCommands > 0;
+    }
+
+    /**
+     * Gets the number of commands of the last event that were skipped.
+     *
+     * @return The number of invalid commands.
+     */
+    public int invalidCommands() {
+        return invalidCommands;
+    }
+
+    /**
+     * Gets the start of the first invalid command of the last event.
+     *
+     * @return The index of its first character, or -1 if every command was valid.
+     */
+    public int errorStart() {
+        return errorStart;
+    }
+
+    /**
+     * Gets the end of the first invalid command of the last event.
+     *
+     * @return The index after its last character, or -1 if every command was valid.
+     */
+    public int errorEnd() {
+        return errorEnd;
+    }
+
+    /**
+     * Decodes one command and stores it.
+     *
+     * @param input The text of the event.
+     * @param start The index of the first character of the command.
+     * @param end The index after the last character of the command.
+     * @return True if the command was valid, false otherwise.
+     */
+    private boolean parseCommand(CharSequence input, int start, int end) {
+        char first = input.charAt(start);
+        if (end - start > 3 && (first == '+' || first == '-') && input.charAt(start + 1) == first && input.charAt(start + 2) == first) {
+            long amountMinor = parseAmount(input, start + 3, end);
+            return amountMinor > 0 && store(first == '+' ? Kind.CASH_IN : Kind.CASH_OUT, amountMinor, 0);
+        }
+        if (first == '!') {
+            if (end - start == 2 && input.charAt(start + 1) == '!') {
+                return store(Kind.VOID_BASKET, 0, 0);
+            }
+            long code = parseNumber(input, start + 1, end, MAX_CODE_DIGITS);
+            return code > 0 && store(Kind.VOID_LINE, code, 0);
+        }
+
+        Kind kind = first == '-' ? Kind.REMOVE : Kind.ADD;
+        int position = first == '+' || first == '-' ? start + 1 : start;
+        int star = position;
+        while (star < end && input.charAt(star) != '*') {
+            star++;
+        }
+        int quantity = 1;
+        if (star < end) {
+            long multiplier = parseNumber(input, position, star, 4);
+            if (multiplier <= 0 || multiplier > MAX_QUANTITY) {
+                return false;
+            }
+            quantity = (int) multiplier;
+            position = star + 1;
+        }
+        long code = parseNumber(input, position, end, MAX_CODE_DIGITS);
+        return code > 0 && store(kind, code, quantity);
+    }
+
+    /**
+     * Stores a decoded command.
+     *
+     * @param kind The kind of the command.
+     * @param value The item code or the amount in cents.
+     * @param quantity The number of units.
+     * @return Always true.
+     */
+    private boolean store(Kind kind, long value, int quantity) {
+        kinds[count] = kind;
+        values[count] = value;
+        quantities[count] = quantity;
+        count++;
+        return true;
+    }
+
+    /**
+     * Parses a run of decimal digits.
+     *
+     * @param input The text of the event.
+     * @param start The index of the first digit.
+     * @param end The index after the last digit.
+     * @param maxDigits The maximum number of digits.
+     * @return The number, or -1 if the run is empty, too long or holds anything but digits.
+     */
+    private static long parseNumber(CharSequence input, int start, int end, int maxDigits) {
+        if (start >= end || end - start > maxDigits) {
+            return -1;
+        }
+        long number = 0;
+        for (int i = start; i < end; i++) {
+            int digit = input.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            number = number * 10 + digit;
+        }
+        return number;
+    }
+
+    /**
+     * Parses an amount with up to two decimals into cents.
+     *
+     * @param input The text of the event.
+     * @param start The index of the first character of the amount.
+     * @param end The index after the last character of the amount.
+     * @return The amount in cents, or -1 if it is not a valid amount.
+     */
+    private static long parseAmount(CharSequence input, int start, int end) {
+        int point = start;
+        while (point < end && input.charAt(point) != '.') {
+            point++;
+        }
+        long units = parseNumber(input, start, point, MAX_AMOUNT_DIGITS);
+        if (units < 0) {
+            return -1;
+        }
+        if (point == end) {
+            return units * 100;
+        }
+        int decimals = end - point - 1;
+        long fraction = parseNumber(input, point + 1, end, 2);
+        if (fraction < 0) {
+            return -1;
+        }
+        return units * 100 + (decimals == 1 ? fraction * 10 : fraction);
+    }
+
+    /**
+     * Checks whether a character separates two commands.
+     *
+     * @param c The character.
+     * @return True for whitespace, ',' and ';', false otherwise.
+     */
+    private static boolean isSeparator(char c) {
+        return c == ',' || c == ';' || Character.isWhitespace(c);
+    }
+}
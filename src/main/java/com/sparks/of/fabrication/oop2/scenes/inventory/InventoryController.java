@@ -2,17 +2,28 @@ package com.sparks.of.fabrication.oop2.scenes.inventory;
 
 import com.sparks.of.fabrication.oop2.utils.Singleton;
 import com.sparks.of.fabrication.oop2.models.*;
+import com.sparks.of.fabrication.oop2.utils.AsyncEntityManagerWrapper;
 import com.sparks.of.fabrication.oop2.utils.EntityManagerWrapper;
+import com.sparks.of.fabrication.oop2.utils.Env;
 import com.sparks.of.fabrication.oop2.utils.LogEmployee;
+import com.sparks.of.fabrication.oop2.utils.PagedObservableList;
 import com.sparks.of.fabrication.oop2.utils.Pair;
+import com.sparks.of.fabrication.oop2.utils.QueryRegistry;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
+import javafx.stage.FileChooser;
+import javafx.util.Duration;
 import lombok.Getter;
 import lombok.Setter;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.io.File;
 import java.lang.reflect.Field;
+import java.nio.file.Path;
+import java.util.concurrent.CancellationException;
 
 /**
  * Controller for managing the inventory UI, allowing for the display, creation, updating, and deletion of inventory items.
@@ -58,8 +69,21 @@ public class InventoryController {
     @FXML
     private Button catCliSupCreate, catCliSupDelete;
 
+    @FXML
+    private Button importButton, exportButton;
+
+    @FXML
+    private Label transferStatus;
+
     private final EntityManagerWrapper entityManagerWrapper = Singleton.getInstance(EntityManagerWrapper.class);
     private final InventoryServices inventoryServices = new InventoryServices();
+    private final ItemCsvTransfer itemCsvTransfer = new ItemCsvTransfer();
+    private final AsyncEntityManagerWrapper asyncEntityManager = Singleton.getInstance(AsyncEntityManagerWrapper.class);
+    private final PauseTransition searchDebounce =
+            new PauseTransition(Duration.millis(Singleton.getInstance(Env.class).getInventorySearchDebounceMs()));
+    private String pendingSearch = "";
+    private static final int PAGE_SIZE = 100;
+    private static final int CACHED_PAGES = 16;
     private static final Logger log = LogManager.getLogger(InventoryController.class);
     private final LogEmployee logEmployee = Singleton.getInstance(LogEmployee.class);
 
@@ -80,8 +104,10 @@ public class InventoryController {
     public void initialize() {
         try {
             log.info("Initializing InventoryController.");
+            searchDebounce.setOnFinished(event -> loadItems(pendingSearch));
             TableViewSetup.configureTableColumns(inventoryTable, idItemColumn, nameColumn, categoryColumn, priceColumn, arrivalPriceColumn, quantityColumn, this);
             inventoryServices.loadCategories(categoryComboBox);
+            inventoryServices.warmNameIndex();
             catCliSup = 0;
             log.info("InventoryController initialized successfully.");
         } catch (Exception e) {
@@ -91,20 +117,63 @@ public class InventoryController {
     }
 
     /**
-     * Loads the items into the inventory table based on the provided search text.
+     * Searches the items as the user types. Keystrokes within the debounce window are coalesced into
+     * one search for the latest text.
+     *
+     * @param text The current search text.
+     */
+    protected void searchItems(String text) {
+        pendingSearch = text;
+        searchDebounce.playFromStart();
+    }
+
+    /**
+     * Loads the items into the inventory table based on the provided search text. The items are looked up
+     * on a background thread; a newer search cancels this one, so only the latest result reaches the table.
+     * Without search text the whole catalog is shown, see {@link #showAllItems()}.
      *
      * @param text The search text to filter items.
-     * @throws NoSuchFieldException if the specified field cannot be found during the loading process.
      */
-    protected void loadItems(String text) throws NoSuchFieldException {
-        try {
-            log.info("Loading items with search text: {}", text);
-            inventoryTable.setItems(inventoryServices.loadItems(text));
-            log.info("Items loaded successfully.");
-        } catch (Exception e) {
-            log.error("Error loading items: ", e);
-            logEmployee.createLog("Load Items Error", "Failed to load items with text: " + text + " - " + e.getMessage());
+    protected void loadItems(String text) {
+        if (text.isBlank()) {
+            showAllItems();
+            return;
         }
+        log.info("Loading items with search text: {}", text);
+        asyncEntityManager.submitLatest(inventoryTable, wrapper -> inventoryServices.loadItems(text))
+                .whenComplete((items, error) -> {
+                    if (error != null) {
+                        if (!(error instanceof CancellationException)) {
+                            log.error("Error loading items: ", error);
+                            logEmployee.createLog("Load Items Error", "Failed to load items with text: " + text + " - " + error.getMessage());
+                        }
+                        return;
+                    }
+                    inventoryTable.setItems(items);
+                    log.info("Items loaded successfully.");
+                });
+    }
+
+    /**
+     * Shows the whole catalog. Only the items are counted up front; the rows are read page by page as the
+     * table scrolls over them, see {@link PagedObservableList}.
+     */
+    private void showAllItems() {
+        log.info("Loading all items page by page.");
+        asyncEntityManager.submitLatest(inventoryTable, wrapper -> wrapper.countEntities(Item.class).y())
+                .whenComplete((count, error) -> {
+                    if (error != null) {
+                        if (!(error instanceof CancellationException)) {
+                            log.error("Error counting items: ", error);
+                            logEmployee.createLog("Load Items Error", "Failed to count items - " + error.getMessage());
+                        }
+                        return;
+                    }
+                    Field idField = QueryRegistry.field(Item.class, "idItem");
+                    inventoryTable.setItems(new PagedObservableList<>(asyncEntityManager, Item.class, idField,
+                            count.intValue(), PAGE_SIZE, CACHED_PAGES));
+                    log.info("Showing {} items.", count);
+                });
     }
 
     /**
@@ -196,6 +265,7 @@ public class InventoryController {
             if (success) {
                 log.info("New item created successfully: {}", nameField.getText());
                 searchField.setText("");
+                loadItems("");
                 clearFields();
             } else {
                 log.error("Failed to create new item: {}", nameField.getText());
@@ -219,8 +289,10 @@ public class InventoryController {
             inventoryServices.CascadeConnections(entityManagerWrapper.findEntityById(Item.class,Integer.parseInt(idField.getText())).y(),field1,field2);
             boolean success = entityManagerWrapper.deleteEntityById(Item.class, Integer.parseInt(idField.getText()));
             if (success) {
+                inventoryServices.forgetItem(Long.parseLong(idField.getText()));
                 log.info("Item deleted successfully with ID: {}", idField.getText());
                 searchField.setText("");
+                loadItems("");
                 clearFields();
             } else {
                 log.error("Failed to delete item with ID: {}", idField.getText());
@@ -232,6 +304,94 @@ public class InventoryController {
         }
     }
 
+    /**
+     * Imports items from a CSV file chosen by the user, updating the items that have the same name.
+     * The import runs in the background; invalid records are written to a ".rejects.csv" file next to the source.
+     */
+    @FXML
+    private void importItems() {
+        File source = csvChooser("Import Items").showOpenDialog(inventoryTable.getScene().getWindow());
+        if (source == null) {
+            return;
+        }
+        Path rejects = source.toPath().resolveSibling(source.getName().replaceFirst("(?i)\\.csv$", "") + ".rejects.csv");
+        log.info("Importing items from {}.", source);
+        setTransferRunning(true);
+        asyncEntityManager.submit(wrapper -> itemCsvTransfer.importItems(source.toPath(), rejects, true, this::showTransferProgress))
+                .whenComplete((result, error) -> {
+                    setTransferRunning(false);
+                    inventoryServices.forgetImportedItems();
+                    loadItems(searchField.getText());
+                    if (error != null || !result.x()) {
+                        log.error("Error importing items from {}.", source, error);
+                        logEmployee.createLog("Import Items Error", "Failed to import items from " + source);
+                        transferStatus.setText("Import failed.");
+                        return;
+                    }
+                    String summary = "Imported " + result.y().describe()
+                            + (result.y().rejected() > 0 ? ", rejects in " + rejects.getFileName() : "");
+                    transferStatus.setText(summary);
+                    logEmployee.createLog("Import Items", summary + " from " + source);
+                });
+    }
+
+    /**
+     * Exports all items to a CSV file chosen by the user. The export runs in the background.
+     */
+    @FXML
+    private void exportItems() {
+        File target = csvChooser("Export Items").showSaveDialog(inventoryTable.getScene().getWindow());
+        if (target == null) {
+            return;
+        }
+        log.info("Exporting items to {}.", target);
+        setTransferRunning(true);
+        asyncEntityManager.submit(wrapper -> itemCsvTransfer.exportItems(target.toPath(), this::showTransferProgress))
+                .whenComplete((result, error) -> {
+                    setTransferRunning(false);
+                    if (error != null || !result.x()) {
+                        log.error("Error exporting items to {}.", target, error);
+                        logEmployee.createLog("Export Items Error", "Failed to export items to " + target);
+                        transferStatus.setText("Export failed.");
+                        return;
+                    }
+                    transferStatus.setText("Exported " + result.y().written() + " items.");
+                    logEmployee.createLog("Export Items", "Exported " + result.y().written() + " items to " + target);
+                });
+    }
+
+    /**
+     * Creates a file chooser for CSV files.
+     *
+     * @param title The title of the dialog.
+     * @return The file chooser.
+     */
+    private FileChooser csvChooser(String title) {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle(title);
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV files", "*.csv"));
+        return chooser;
+    }
+
+    /**
+     * Shows the progress of an import or export. Safe to call from a background thread.
+     *
+     * @param progress The current progress.
+     */
+    private void showTransferProgress(ItemTransferProgress progress) {
+        Platform.runLater(() -> transferStatus.setText(progress.describe()));
+    }
+
+    /**
+     * Disables the import and export buttons while a transfer runs.
+     *
+     * @param running Whether a transfer is running.
+     */
+    private void setTransferRunning(boolean running) {
+        importButton.setDisable(running);
+        exportButton.setDisable(running);
+    }
+
     /**
      * Loads categories into the ComboBox for category selection.
      */
@@ -2,7 +2,14 @@ package com.sparks.of.fabrication.oop2.scenes.inventory;
 
 import com.sparks.of.fabrication.oop2.utils.Singleton;
 import com.sparks.of.fabrication.oop2.models.*;
+import com.sparks.of.fabrication.oop2.utils.AsyncEntityManagerWrapper;
 import com.sparks.of.fabrication.oop2.utils.EntityManagerWrapper;
+import com.sparks.of.fabrication.oop2.utils.ItemCatalog;
+import com.sparks.of.fabrication.oop2.utils.ItemNameIndex;
+import com.sparks.of.fabrication.oop2.utils.Pair;
+import com.sparks.of.fabrication.oop2.utils.QueryRegistry;
+import com.sparks.of.fabrication.oop2.utils.StockLevel;
+import com.sparks.of.fabrication.oop2.utils.StockLevelMonitor;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
@@ -10,9 +17,11 @@ import javafx.scene.control.ComboBox;
 import javafx.scene.control.TextField;
 
 import java.lang.reflect.Field;
-import java.sql.Date;
-import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Service class responsible for interacting with the inventory and performing various operations such as loading, creating,
@@ -20,22 +29,138 @@ import java.util.List;
  */
 public class InventoryServices {
     private EntityManagerWrapper entityManagerWrapper = Singleton.getInstance(EntityManagerWrapper.class);
+    private final ItemCatalog itemCatalog = Singleton.getInstance(ItemCatalog.class);
+    private final ItemNameIndex itemNameIndex = Singleton.getInstance(ItemNameIndex.class);
+    private final StockLevelMonitor stockLevelMonitor = Singleton.getInstance(StockLevelMonitor.class);
+    private static final long ROW_TTL_MILLIS = 30_000;
+    private static final int ROW_FETCH_CHUNK = 1000;
+    private static final int ROW_CACHE_SIZE = 5000;
+    private static final int MAX_SEARCH_RESULTS = 1000;
+    private static final String ITEMS_BY_PREFIX = "SELECT i FROM Item i LEFT JOIN FETCH i.category WHERE i.name LIKE :prefix ORDER BY i.name, i.idItem";
+    private final Map<Long, CachedRow> rows = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, CachedRow> eldest) {
+            return size() > ROW_CACHE_SIZE;
+        }
+    };
 
     /**
-     * Loads items from the database based on a search text and filters those with low quantities.
+     * A row of the inventory table and the time it was read from the database.
+     *
+     * @param item     The item.
+     * @param loadedAt The time the item was read, in epoch milliseconds.
+     */
+    private record CachedRow(Item item, long loadedAt) {
+    }
+
+    /**
+     * Loads the first {@value #MAX_SEARCH_RESULTS} items, in name order, whose name starts with the search text.
+     * The matching ids come from the item name index; only rows that are not cached yet are read from
+     * the database. Until the index is warmed, the items are searched in the database.
+     * Safe to call from a background thread.
      *
      * @param text The search text to filter items.
      * @return An observable list of items matching the search criteria.
-     * @throws NoSuchFieldException If there is an error accessing the specified field.
      */
-    protected ObservableList<Item> loadItems(String text) throws NoSuchFieldException {
-        Field field = Item.class.getDeclaredField("name");
-        List<Item> itemList = entityManagerWrapper.findEntityByValAllLikeR(Item.class, field, text).y();
-        lowQuantity(itemList);
+    protected ObservableList<Item> loadItems(String text) {
+        List<Item> itemList;
+        if (itemNameIndex.isReady()) {
+            itemList = fetchRows(itemNameIndex.findByPrefix(text, MAX_SEARCH_RESULTS));
+        } else {
+            itemList = entityManagerWrapper.findProjection(Item.class, ITEMS_BY_PREFIX, Map.of("prefix", text + "%"), MAX_SEARCH_RESULTS).y();
+            itemList.forEach(this::cacheRow);
+        }
         ObservableList<Item> items = FXCollections.observableArrayList(itemList);
         return items;
     }
 
+    /**
+     * Starts loading the item name index in the background, unless it is loaded already.
+     */
+    protected void warmNameIndex() {
+        if (!itemNameIndex.isReady()) {
+            itemNameIndex.warm(Singleton.getInstance(AsyncEntityManagerWrapper.class));
+        }
+    }
+
+    /**
+     * Gets the rows of the given items, reading only the missing or expired rows from the database.
+     *
+     * @param ids The ids of the items, in display order.
+     * @return The rows of the items that still exist, in the same order.
+     */
+    private synchronized List<Item> fetchRows(long[] ids) {
+        long now = System.currentTimeMillis();
+        Map<Long, Item> found = new HashMap<>();
+        List<Long> missing = new ArrayList<>();
+        for (long id : ids) {
+            CachedRow row = rows.get(id);
+            if (row == null || now - row.loadedAt() > ROW_TTL_MILLIS) {
+                missing.add(id);
+            } else {
+                found.put(id, row.item());
+            }
+        }
+        Field idField = QueryRegistry.field(Item.class, "idItem");
+        for (int from = 0; from < missing.size(); from += ROW_FETCH_CHUNK) {
+            List<Long> chunk = missing.subList(from, Math.min(missing.size(), from + ROW_FETCH_CHUNK));
+            Pair<Boolean, List<Item>> fetched = entityManagerWrapper.findEntitiesByValIn(Item.class, idField, chunk);
+            if (fetched.x()) {
+                for (Item item : fetched.y()) {
+                    found.put(item.getIdItem(), item);
+                    cacheRow(item);
+                }
+            }
+        }
+
+        // Built from the fetched rows, not read back from the cache, which may have evicted some of them
+        List<Item> items = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            Item item = found.get(id);
+            if (item != null) {
+                items.add(item);
+            }
+        }
+        return items;
+    }
+
+    /**
+     * Caches the row of an item.
+     *
+     * @param item The row to cache.
+     */
+    private synchronized void cacheRow(Item item) {
+        rows.put(item.getIdItem(), new CachedRow(item, System.currentTimeMillis()));
+    }
+
+    /**
+     * Removes the cached row of a changed item, so the next search reads it again.
+     *
+     * @param id The id of the changed item.
+     */
+    private synchronized void evictRow(long id) {
+        rows.remove(id);
+    }
+
+    /**
+     * Removes an item from the name index and the row cache after it was deleted.
+     *
+     * @param id The id of the deleted item.
+     */
+    protected synchronized void forgetItem(long id) {
+        itemNameIndex.remove(id);
+        rows.remove(id);
+    }
+
+    /**
+     * Drops the cached rows and reloads the item name index after items were imported in bulk,
+     * which is cheaper than updating the index item by item.
+     */
+    protected synchronized void forgetImportedItems() {
+        rows.clear();
+        itemNameIndex.warm(Singleton.getInstance(AsyncEntityManagerWrapper.class));
+    }
+
     /**
      * Updates the specified item with new data.
      *
@@ -49,13 +174,21 @@ public class InventoryServices {
      */
     protected Boolean updateItem(Item currentItem, String nameField, double priceField, double arrivalPriceField,
                                  int quantityField, Category category) {
+        int previousQuantity = currentItem.getQuantity() != null ? currentItem.getQuantity() : 0;
         currentItem.setName(nameField);
         currentItem.setPrice(priceField);
         currentItem.setArrivalPrice(arrivalPriceField);
         currentItem.setQuantity(quantityField);
         currentItem.setCategory(category);
 
-        return entityManagerWrapper.genEntity(currentItem);
+        boolean updated = entityManagerWrapper.genEntity(currentItem);
+        if (updated) {
+            itemCatalog.invalidate(currentItem.getIdItem());
+            itemNameIndex.put(currentItem.getIdItem(), nameField);
+            evictRow(currentItem.getIdItem());
+            stockLevelMonitor.record(StockLevel.of(currentItem), previousQuantity);
+        }
+        return updated;
     }
 
     /**
@@ -76,7 +209,11 @@ public class InventoryServices {
         newItem.setQuantity(quantityField);
         newItem.setCategory(category);
 
-        return entityManagerWrapper.genEntity(newItem);
+        boolean created = entityManagerWrapper.genEntity(newItem);
+        if (created && newItem.getIdItem() != null) {
+            itemNameIndex.put(newItem.getIdItem(), nameField);
+        }
+        return created;
     }
 
     /**
@@ -191,23 +328,6 @@ public class InventoryServices {
         for (TransactionDetail detail : x) {
             entityManagerWrapper.deleteEntityById(TransactionDetail.class, detail.getId().intValue());
         }
-    }
-
-    /**
-     * Checks the quantity of items and sends a notification if an item is low on stock.
-     *
-     * @param items The list of items to check for low stock.
-     */
-    private void lowQuantity(List<Item> items) {
-        for (Item item : items) {
-            if (item.getQuantity() < 5) {
-                Notification notification = new Notification();
-                notification.setDateSent(Date.valueOf(LocalDate.now()));
-                notification.setEmployee(Singleton.getInstance(Employee.class));
-                notification.setMessage("Item " + item.getName() + " is low on stock!");
-                notification.setStatus("unread");
-                entityManagerWrapper.genEntity(notification);
-            }
-        }
+        itemCatalog.invalidate(item.getIdItem());
     }
 }
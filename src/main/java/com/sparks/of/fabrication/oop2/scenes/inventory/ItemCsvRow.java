@@ -0,0 +1,14 @@
+package com.sparks.of.fabrication.oop2.scenes.inventory;
+
+/**
+ * Read-only row of an item CSV export, holding only the exported columns.
+ *
+ * @param id           The id of the item.
+ * @param name         The name of the item.
+ * @param category     The name of the category of the item.
+ * @param price        The selling price of the item.
+ * @param arrivalPrice The arrival price of the item.
+ * @param quantity     The quantity in stock.
+ */
+public record ItemCsvRow(Long id, String name, String category, Double price, Double arrivalPrice, Integer quantity) {
+}
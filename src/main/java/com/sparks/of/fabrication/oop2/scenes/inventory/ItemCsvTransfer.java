@@ -0,0 +1,386 @@
+package com.sparks.of.fabrication.oop2.scenes.inventory;
+
+import com.sparks.of.fabrication.oop2.models.Category;
+import com.sparks.of.fabrication.oop2.models.Item;
+import com.sparks.of.fabrication.oop2.utils.CsvReader;
+import com.sparks.of.fabrication.oop2.utils.CsvWriter;
+import com.sparks.of.fabrication.oop2.utils.EntityManagerWrapper;
+import com.sparks.of.fabrication.oop2.utils.ItemCatalog;
+import com.sparks.of.fabrication.oop2.utils.Pair;
+import com.sparks.of.fabrication.oop2.utils.Singleton;
+import com.sparks.of.fabrication.oop2.utils.StockLevel;
+import com.sparks.of.fabrication.oop2.utils.StockLevelMonitor;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Imports items from and exports items to CSV files, streaming the file so memory does not depend on its size.
+ * <p>
+ * The file has a header naming its columns: {@code name}, {@code category}, {@code price}, {@code arrival_price}
+ * and {@code quantity}, in any order; other columns, such as the {@code id_item} of an export, are ignored.
+ * Categories are resolved by name from a map loaded once. Valid records are written in batches of
+ * {@value #BATCH_SIZE}, each batch one transaction of two JDBC batches: an update of the items with the same name
+ * and an insert of the records that matched none. Invalid records, and records of a batch the database refuses,
+ * are copied to a reject file with the reason appended, so they can be fixed and imported again.
+ * Items the import leaves low on stock are reported in one notification once the import ends, not one per item.
+ */
+public class ItemCsvTransfer {
+
+    private static final Logger log = LogManager.getLogger(ItemCsvTransfer.class);
+    static final int BATCH_SIZE = 1000;
+    private static final int FETCH_SIZE = 1000;
+    private static final int MAX_RECORD_LENGTH = 4096;
+    private static final int MAX_NAME_LENGTH = 20;
+    private static final int LOW_STOCK_NAMES = 5;
+    private static final String[] COLUMNS = {"name", "category", "price", "arrival_price", "quantity"};
+    private static final String[] EXPORT_COLUMNS = {"id_item", "name", "category", "price", "arrival_price", "quantity"};
+    private static final String UPDATE_BY_NAME = "UPDATE item SET category = ?, price = ?, arrival_price = ?, quantity = ? WHERE name = ?";
+    private static final String INSERT_ITEM = "INSERT INTO item (name, category, price, arrival_price, quantity) VALUES (?, ?, ?, ?, ?)";
+    private static final String STOCK_LEVELS = "SELECT new " + StockLevel.class.getName()
+            + "(i.idItem, i.name, c.category, i.quantity) FROM Item i LEFT JOIN i.category c WHERE i.name IN :names";
+    private static final String EXPORT_ROWS = "SELECT new " + ItemCsvRow.class.getName()
+            + "(i.idItem, i.name, c.category, i.price, i.arrivalPrice, i.quantity) FROM Item i LEFT JOIN i.category c ORDER BY i.idItem";
+
+    private final EntityManagerWrapper entityManagerWrapper = Singleton.getInstance(EntityManagerWrapper.class);
+    private final ItemCatalog itemCatalog = Singleton.getInstance(ItemCatalog.class);
+    private final StockLevelMonitor stockLevelMonitor = Singleton.getInstance(StockLevelMonitor.class);
+
+    /**
+     * A valid record waiting for its batch to be written.
+     *
+     * @param name         The name of the item.
+     * @param categoryId   The id of the category of the item.
+     * @param price        The selling price of the item.
+     * @param arrivalPrice The arrival price of the item.
+     * @param quantity     The quantity in stock.
+     * @param line         The line of the record in the file.
+     * @param raw          The record as it appeared in the file.
+     */
+    private record PendingItem(String name, long categoryId, double price, double arrivalPrice, int quantity,
+                               long line, String raw) {
+    }
+
+    /**
+     * The items an import left low on stock: how many, and the names of the first few.
+     */
+    private static class LowStock {
+        private long count;
+        private final List<String> names = new ArrayList<>(LOW_STOCK_NAMES);
+    }
+
+    /**
+     * Imports the items of a CSV file. Runs on the calling thread; call it from a background thread.
+     *
+     * @param source The CSV file to import, in UTF-8.
+     * @param rejects The file receiving the rejected records, deleted again if there are none.
+     * @param upsert Whether a record updates the items that have its name, instead of always adding an item.
+     * @param progress Receives the progress after every batch.
+     * @return A Pair containing a success flag and the final progress.
+     */
+    public Pair<Boolean, ItemTransferProgress> importItems(Path source, Path rejects, boolean upsert,
+                                                           Consumer<ItemTransferProgress> progress) {
+        Map<String, Long> categoryIds = new HashMap<>();
+        for (Category category : entityManagerWrapper.findAllEntities(Category.class)) {
+            categoryIds.put(category.getCategory(), category.getIdCategory());
+        }
+
+        long records = 0;
+        long written = 0;
+        long rejected = 0;
+        LowStock lowStock = new LowStock();
+        try (CsvReader reader = new CsvReader(Files.newBufferedReader(source, StandardCharsets.UTF_8), MAX_RECORD_LENGTH)) {
+            double size = Math.max(1, Files.size(source));
+            int[] columns = reader.next() ? mapColumns(reader) : null;
+            if (columns == null) {
+                log.error("CSV file {} needs a header with the columns {}.", source, String.join(", ", COLUMNS));
+                return new Pair<>(false, new ItemTransferProgress(0, 0, 0, 1));
+            }
+
+            try (CsvWriter rejectWriter = new CsvWriter(Files.newBufferedWriter(rejects, StandardCharsets.UTF_8))) {
+                rejectWriter.writeRaw(reader.raw(), "error");
+                List<PendingItem> batch = new ArrayList<>(BATCH_SIZE);
+                while (reader.next()) {
+                    records++;
+                    String error = reader.isTooLong()
+                            ? "record longer than " + MAX_RECORD_LENGTH + " characters"
+                            : validate(reader, columns, categoryIds);
+                    if (error != null) {
+                        rejectWriter.writeRaw(reader.raw(), "line " + reader.lineNumber() + ": " + error);
+                        rejected++;
+                        continue;
+                    }
+                    batch.add(toItem(reader, columns, categoryIds));
+                    if (batch.size() == BATCH_SIZE) {
+                        int failed = writeBatch(batch, upsert, rejectWriter, lowStock);
+                        written += batch.size() - failed;
+                        rejected += failed;
+                        batch.clear();
+                        progress.accept(new ItemTransferProgress(records, written, rejected, Math.min(1, reader.charsRead() / size)));
+                    }
+                }
+                int failed = writeBatch(batch, upsert, rejectWriter, lowStock);
+                written += batch.size() - failed;
+                rejected += failed;
+            }
+        } catch (IOException e) {
+            log.error("Error importing items from {}: {}", source, e.getMessage(), e);
+            return new Pair<>(false, new ItemTransferProgress(records, written, rejected, 1));
+        }
+
+        ItemTransferProgress result = new ItemTransferProgress(records, written, rejected, 1);
+        if (rejected == 0) {
+            deleteQuietly(rejects);
+        }
+        log.info("Imported items from {}: {}", source, result.describe());
+        stockLevelMonitor.notifyLowStockSummary("Import of " + source, lowStock.count, lowStock.names);
+        progress.accept(result);
+        return new Pair<>(true, result);
+    }
+
+    /**
+     * Exports all items to a CSV file ordered by id, reading them over a database cursor.
+     * Runs on the calling thread; call it from a background thread.
+     *
+     * @param target The CSV file to write, in UTF-8.
+     * @param progress Receives the progress after every {@value #BATCH_SIZE} items.
+     * @return A Pair containing a success flag and the final progress.
+     */
+    public Pair<Boolean, ItemTransferProgress> exportItems(Path target, Consumer<ItemTransferProgress> progress) {
+        double total = Math.max(1, entityManagerWrapper.countEntities(Item.class).y());
+        long[] written = {0};
+        try (CsvWriter writer = new CsvWriter(Files.newBufferedWriter(target, StandardCharsets.UTF_8))) {
+            writer.writeRow((Object[]) EXPORT_COLUMNS);
+            Pair<Boolean, Long> streamed = entityManagerWrapper.streamProjection(ItemCsvRow.class, EXPORT_ROWS, Map.of(), FETCH_SIZE, row -> {
+                try {
+                    writer.writeRow(row.id(), row.name(), row.category(), row.price(), row.arrivalPrice(), row.quantity());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                if (++written[0] % BATCH_SIZE == 0) {
+                    progress.accept(new ItemTransferProgress(written[0], written[0], 0, Math.min(1, written[0] / total)));
+                }
+            });
+            ItemTransferProgress result = new ItemTransferProgress(written[0], written[0], 0, 1);
+            if (!streamed.x()) {
+                return new Pair<>(false, result);
+            }
+            log.info("Exported items to {}: {}", target, result.describe());
+            progress.accept(result);
+            return new Pair<>(true, result);
+        } catch (IOException e) {
+            log.error("Error exporting items to {}: {}", target, e.getMessage(), e);
+            return new Pair<>(false, new ItemTransferProgress(written[0], written[0], 0, 1));
+        }
+    }
+
+    /**
+     * Finds the columns of the item fields in the header.
+     *
+     * @param reader The reader positioned on the header.
+     * @return The index of every column of {@link #COLUMNS}, or null if one is missing.
+     */
+    private int[] mapColumns(CsvReader reader) {
+        int[] columns = new int[COLUMNS.length];
+        for (int i = 0; i < COLUMNS.length; i++) {
+            columns[i] = -1;
+            for (int field = 0; field < reader.size(); field++) {
+                if (reader.get(field).trim().toLowerCase(Locale.ROOT).equals(COLUMNS[i])) {
+                    columns[i] = field;
+                }
+            }
+            if (columns[i] < 0) {
+                return null;
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * Reads the current record, which must be valid.
+     *
+     * @param reader The reader positioned on the record.
+     * @param columns The index of every column of {@link #COLUMNS}.
+     * @param categoryIds The category ids by category name.
+     * @return The item of the record.
+     */
+    private PendingItem toItem(CsvReader reader, int[] columns, Map<String, Long> categoryIds) {
+        return new PendingItem(reader.get(columns[0]).trim(), categoryIds.get(reader.get(columns[1]).trim()),
+                Double.parseDouble(reader.get(columns[2]).trim()), Double.parseDouble(reader.get(columns[3]).trim()),
+                Integer.parseInt(reader.get(columns[4]).trim()), reader.lineNumber(), reader.raw().toString());
+    }
+
+    /**
+     * Validates the current record.
+     *
+     * @param reader The reader positioned on the record.
+     * @param columns The index of every column of {@link #COLUMNS}.
+     * @param categoryIds The category ids by category name.
+     * @return The reason the record is invalid, or null if it is valid.
+     */
+    private String validate(CsvReader reader, int[] columns, Map<String, Long> categoryIds) {
+        for (int column : columns) {
+            if (column >= reader.size()) {
+                return "expected at least " + (column + 1) + " fields, found " + reader.size();
+            }
+        }
+        String name = reader.get(columns[0]).trim();
+        if (name.isEmpty() || name.length() > MAX_NAME_LENGTH) {
+            return "name must have 1 to " + MAX_NAME_LENGTH + " characters";
+        }
+        if (!categoryIds.containsKey(reader.get(columns[1]).trim())) {
+            return "unknown category \"" + reader.get(columns[1]).trim() + "\"";
+        }
+        if (!isAmount(reader.get(columns[2]))) {
+            return "invalid price \"" + reader.get(columns[2]) + "\"";
+        }
+        if (!isAmount(reader.get(columns[3]))) {
+            return "invalid arrival price \"" + reader.get(columns[3]) + "\"";
+        }
+        try {
+            if (Integer.parseInt(reader.get(columns[4]).trim()) < 0) {
+                return "quantity must not be negative";
+            }
+        } catch (NumberFormatException e) {
+            return "invalid quantity \"" + reader.get(columns[4]) + "\"";
+        }
+        return null;
+    }
+
+    /**
+     * Checks whether a field holds a non-negative amount.
+     *
+     * @param text The field.
+     * @return True if the field is a finite number of at least zero.
+     */
+    private static boolean isAmount(String text) {
+        try {
+            double amount = Double.parseDouble(text.trim());
+            return Double.isFinite(amount) && amount >= 0;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Writes a batch in one transaction. If the database refuses the batch, every record is written on its own
+     * and the refused ones are rejected.
+     *
+     * @param batch The records to write.
+     * @param upsert Whether to update the items with the same name first.
+     * @param rejectWriter The writer of the reject file.
+     * @param lowStock Collects the written items left low on stock.
+     * @return The number of rejected records.
+     * @throws IOException If the reject file cannot be written.
+     */
+    private int writeBatch(List<PendingItem> batch, boolean upsert, CsvWriter rejectWriter, LowStock lowStock) throws IOException {
+        if (batch.isEmpty() || write(batch, upsert, lowStock)) {
+            return 0;
+        }
+        log.warn("Batch of {} items starting at line {} failed, writing its items one by one.", batch.size(), batch.getFirst().line());
+        int failed = 0;
+        for (PendingItem item : batch) {
+            if (!write(List.of(item), upsert, lowStock)) {
+                rejectWriter.writeRaw(item.raw(), "line " + item.line() + ": rejected by the database");
+                failed++;
+            }
+        }
+        return failed;
+    }
+
+    /**
+     * Writes records in one transaction: updates the items that have their names, inserts the others and reports
+     * the new stock levels once the transaction is committed. Within the records the last one of a name wins.
+     *
+     * @param items The records to write.
+     * @param upsert Whether to update the items with the same name first.
+     * @param lowStock Collects the written items left low on stock.
+     * @return True if the transaction was committed.
+     */
+    private boolean write(List<PendingItem> items, boolean upsert, LowStock lowStock) {
+        List<PendingItem> rows = items;
+        if (upsert) {
+            Map<String, PendingItem> byName = new LinkedHashMap<>();
+            items.forEach(item -> byName.put(item.name(), item));
+            rows = new ArrayList<>(byName.values());
+        }
+        List<PendingItem> writes = rows;
+        return entityManagerWrapper.inTransaction(() -> {
+            List<PendingItem> inserts = writes;
+            if (upsert) {
+                List<Object[]> updates = new ArrayList<>(writes.size());
+                for (PendingItem item : writes) {
+                    updates.add(new Object[]{item.categoryId(), item.price(), item.arrivalPrice(), item.quantity(), item.name()});
+                }
+                Pair<Boolean, int[]> updated = entityManagerWrapper.executeBatchUpdate(UPDATE_BY_NAME, updates);
+                if (!updated.x()) {
+                    return;
+                }
+                inserts = new ArrayList<>();
+                for (int i = 0; i < writes.size(); i++) {
+                    if (updated.y()[i] == 0) {
+                        inserts.add(writes.get(i));
+                    }
+                }
+            }
+
+            List<Object[]> rowsToInsert = new ArrayList<>(inserts.size());
+            for (PendingItem item : inserts) {
+                rowsToInsert.add(new Object[]{item.name(), item.categoryId(), item.price(), item.arrivalPrice(), item.quantity()});
+            }
+            if (!rowsToInsert.isEmpty() && !entityManagerWrapper.executeBatchUpdate(INSERT_ITEM, rowsToInsert).x()) {
+                return;
+            }
+            reportStockLevels(writes, lowStock);
+        });
+    }
+
+    /**
+     * Reads the stock levels of the written items and, once the transaction is committed, drops them from the
+     * item catalog and collects the ones below their low stock threshold.
+     *
+     * @param items The written records.
+     * @param lowStock Collects the written items left low on stock.
+     */
+    private void reportStockLevels(List<PendingItem> items, LowStock lowStock) {
+        List<String> names = items.stream().map(PendingItem::name).toList();
+        Pair<Boolean, List<StockLevel>> levels = entityManagerWrapper.findProjection(StockLevel.class, STOCK_LEVELS, Map.of("names", names), 0);
+        if (!levels.x()) {
+            log.warn("Could not read the stock levels of the imported items.");
+            return;
+        }
+        entityManagerWrapper.afterCommit(() -> {
+            for (StockLevel level : levels.y()) {
+                itemCatalog.invalidate(level.id());
+                if (stockLevelMonitor.isLow(level) && lowStock.count++ < LOW_STOCK_NAMES) {
+                    lowStock.names.add(level.name());
+                }
+            }
+        });
+    }
+
+    /**
+     * Deletes a file, logging instead of failing if it cannot be deleted.
+     *
+     * @param file The file to delete.
+     */
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete {}: {}", file, e.getMessage());
+        }
+    }
+}
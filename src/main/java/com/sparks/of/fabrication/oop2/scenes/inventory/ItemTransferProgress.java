@@ -0,0 +1,21 @@
+package com.sparks.of.fabrication.oop2.scenes.inventory;
+
+/**
+ * Progress of an item CSV import or export.
+ *
+ * @param records  The number of records read from the file or from the database so far.
+ * @param written  The number of records written to the database or to the file.
+ * @param rejected The number of records sent to the reject file.
+ * @param fraction The share of the work done, between 0 and 1.
+ */
+public record ItemTransferProgress(long records, long written, long rejected, double fraction) {
+
+    /**
+     * Formats the progress for the status line and the log.
+     *
+     * @return The progress as one line of text.
+     */
+    public String describe() {
+        return String.format("%d%%: %d records, %d written, %d rejected", Math.round(fraction * 100), records, written, rejected);
+    }
+}
@@ -1,6 +1,7 @@
 package com.sparks.of.fabrication.oop2.scenes.inventory;
 
 import com.sparks.of.fabrication.oop2.models.Item;
+import com.sparks.of.fabrication.oop2.utils.PagedObservableList;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
@@ -31,7 +32,7 @@ public class TableViewSetup {
         idItemColumn.setCellValueFactory(new PropertyValueFactory<>("idItem"));
         nameColumn.setCellValueFactory(new PropertyValueFactory<>("name"));
         categoryColumn.setCellValueFactory(cellData ->
-                new SimpleStringProperty(cellData.getValue().getCategory().getCategory())
+                new SimpleStringProperty(cellData.getValue() == null ? null : cellData.getValue().getCategory().getCategory())
         );
         priceColumn.setCellValueFactory(new PropertyValueFactory<>("price"));
         arrivalPriceColumn.setCellValueFactory(new PropertyValueFactory<>("arrivalPrice"));
@@ -43,6 +44,8 @@ public class TableViewSetup {
         priceColumn.prefWidthProperty().bind(inventoryTable.widthProperty().multiply(0.15));
         arrivalPriceColumn.prefWidthProperty().bind(inventoryTable.widthProperty().multiply(0.20));
         quantityColumn.prefWidthProperty().bind(inventoryTable.widthProperty().multiply(0.20));
+        inventoryTable.setSortPolicy(table ->
+                !(table.getItems() instanceof PagedObservableList) && TableView.DEFAULT_SORT_POLICY.call(table));
 
         inventoryTable.getSelectionModel().selectedItemProperty().addListener((observable, oldValue, newValue) -> {
             if (newValue != null) {
@@ -55,13 +58,8 @@ public class TableViewSetup {
             }
         });
 
-        inventoryController.getSearchField().textProperty().addListener((observable, oldValue, newValue) -> {
-            try {
-                inventoryController.loadItems(newValue);
-            } catch (NoSuchFieldException e) {
-                throw new RuntimeException(e);
-            }
-        });
+        inventoryController.getSearchField().textProperty().addListener((observable, oldValue, newValue) ->
+                inventoryController.searchItems(newValue));
         inventoryController.getSaveButton().setOnAction(event -> {
             try {
                 inventoryController.saveOrUpdateItem();
@@ -69,7 +67,6 @@ public class TableViewSetup {
                 throw new RuntimeException(e);
             }
         });
-        inventoryController.getSearchField().setText(" ");
-        inventoryController.getSearchField().setText("");
+        inventoryController.loadItems("");
     }
 }
@@ -6,12 +6,14 @@ import com.sparks.of.fabrication.oop2.models.InvoiceStore;
 import com.sparks.of.fabrication.oop2.models.Nomenclature;
 import com.sparks.of.fabrication.oop2.models.Suppliers;
 import com.sparks.of.fabrication.oop2.utils.EntityManagerWrapper;
+import com.sparks.of.fabrication.oop2.utils.Page;
 import javafx.collections.FXCollections;
 import javafx.scene.control.ComboBox;
 
 import java.lang.reflect.Field;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -19,6 +21,7 @@ import java.util.stream.Collectors;
  * Provides methods for managing invoices, including filtering and loading invoice data.
  */
 public class InvoiceServices {
+    private static final int PAGE_SIZE = 100;
     private EntityManagerWrapper entityManagerWrapper = Singleton.getInstance(EntityManagerWrapper.class);
 
     /**
@@ -44,13 +47,14 @@ public class InvoiceServices {
      * @param searchOption the search option (supplier, employee, etc.)
      * @param searchCriteria the criteria for searching
      * @return a list of filtered invoices
+     * @throws IllegalArgumentException for {@link SearchOption#ALL}, which is loaded page by page with {@link #loadInvoicePage(Object)}
      */
     protected List<InvoiceStore> ss(Field field, LocalDate date, SearchOption searchOption, String searchCriteria){
         return switch (searchOption) {
             case SUPPLIER -> filterInvoicesBySupplier(searchCriteria);
             case EMPLOYEE -> filterInvoicesByEmployee(searchCriteria);
             case DATE -> entityManagerWrapper.findEntityByValAll(InvoiceStore.class, field, date).y();
-            case ALL -> loadInvoiceData();
+            case ALL -> throw new IllegalArgumentException("All invoices are loaded page by page, see loadInvoicePage");
         };
     }
 
@@ -88,11 +92,17 @@ public class InvoiceServices {
     }
 
     /**
-     * Loads all invoice data.
+     * Loads one page of invoices, newest first.
      *
-     * @return a list of all invoices
+     * @param afterKey the id of the last invoice of the previous page, or null for the first page
+     * @return the page of invoices
      */
-    protected List<InvoiceStore> loadInvoiceData() {
-        return entityManagerWrapper.findAllEntities(InvoiceStore.class);
+    protected Page<InvoiceStore> loadInvoicePage(Object afterKey) {
+        try {
+            Field idField = InvoiceStore.class.getDeclaredField("idInvoice");
+            return entityManagerWrapper.findPage(InvoiceStore.class, idField, afterKey, PAGE_SIZE, Map.of(), true).y();
+        } catch (NoSuchFieldException e) {
+            throw new RuntimeException("Error loading invoices: " + e.getMessage(), e);
+        }
     }
 }
@@ -8,6 +8,7 @@ import com.sparks.of.fabrication.oop2.models.Suppliers;
 import com.sparks.of.fabrication.oop2.scenes.inventory.InventoryController;
 import com.sparks.of.fabrication.oop2.utils.EntityManagerWrapper;
 import com.sparks.of.fabrication.oop2.utils.LogEmployee;
+import com.sparks.of.fabrication.oop2.utils.PagedTableLoader;
 import com.sparks.of.fabrication.oop2.utils.SceneLoader;
 import javafx.collections.FXCollections;
 import javafx.fxml.FXML;
@@ -52,6 +53,7 @@ public class InvoiceStore_scene {
     private final InvoiceServices invoiceServices = new InvoiceServices();
     private static final Logger log = LogManager.getLogger(InventoryController.class);
     private final LogEmployee logEmployee = Singleton.getInstance(LogEmployee.class);
+    private PagedTableLoader<InvoiceStore> invoiceLoader;
 
     @Getter
     private Nomenclature nomenclature;
@@ -69,6 +71,7 @@ public class InvoiceStore_scene {
         Singleton.getInstance(InvoiceStore_scene.class, this);
 
         TableViewInvoice.configureTableColumns(invoiceTable, invoiceIdColumn, nomenclatureIdColumn, dateColumn, employeeNameColumn, this);
+        invoiceLoader = new PagedTableLoader<>(invoiceTable);
         loadInvoiceData();
 
         searchCriteriaComboBox.setOnAction(event -> {
@@ -82,11 +85,11 @@ public class InvoiceStore_scene {
     }
 
     /**
-     * Loads the invoice data into the table.
+     * Loads the invoice data into the table page by page, newest first.
      */
     private void loadInvoiceData() {
         log.info("Loading invoice data into the table.");
-        invoiceTable.setItems(FXCollections.observableArrayList(invoiceServices.loadInvoiceData()));
+        invoiceLoader.load(invoiceServices::loadInvoicePage);
     }
 
     /**
@@ -150,7 +153,8 @@ public class InvoiceStore_scene {
         SearchOption searchBy = searchByComboBox.getValue();
         List<InvoiceStore> filteredInvoices;
 
-        if (searchBy == null || (searchCriteriaComboBox.getValue() == null && datePicker.getValue() == null)) {
+        if (searchBy == null || searchBy == SearchOption.ALL
+                || (searchCriteriaComboBox.getValue() == null && datePicker.getValue() == null)) {
             log.info("No specific search criteria selected. Loading all invoices.");
             loadInvoiceData();
             return;
@@ -171,7 +175,7 @@ public class InvoiceStore_scene {
 
         log.info("Filtered {} invoices based on search criteria.", filteredInvoices.size());
         logEmployee.createLog("Search Invoices", "Performed search with criteria: " + searchBy); // Logging the search operation
-        invoiceTable.setItems(FXCollections.observableArrayList(filteredInvoices));
+        invoiceLoader.showItems(filteredInvoices);
         invoiceTable.refresh();
     }
 
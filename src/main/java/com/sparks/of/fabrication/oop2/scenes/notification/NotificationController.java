@@ -2,17 +2,17 @@ package com.sparks.of.fabrication.oop2.scenes.notification;
 
 import com.sparks.of.fabrication.oop2.models.Notification;
 import com.sparks.of.fabrication.oop2.utils.EntityManagerWrapper;
+import com.sparks.of.fabrication.oop2.utils.PagedTableLoader;
 import com.sparks.of.fabrication.oop2.utils.Singleton;
 import com.sparks.of.fabrication.oop2.utils.LogEmployee;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
 
-import java.util.List;
+import java.lang.reflect.Field;
+import java.util.Map;
 
 /**
  * The NotificationController class is responsible for managing and displaying notifications in the application.
@@ -37,7 +37,9 @@ public class NotificationController {
     @FXML
     private TableColumn<Notification, String> dateSentColumn;
 
+    private static final int PAGE_SIZE = 100;
     private final EntityManagerWrapper entityManager = Singleton.getInstance(EntityManagerWrapper.class);
+    private PagedTableLoader<Notification> notificationLoader;
 
     private static final Logger log = LogManager.getLogger(NotificationController.class);
     private final LogEmployee logEmployee = Singleton.getInstance(LogEmployee.class);
@@ -56,25 +58,31 @@ public class NotificationController {
     }
 
     /**
-     * Loads the notifications from the database and sets them in the table view.
+     * Loads the newest notifications from the database into the table view, further pages follow as the user scrolls.
      */
     private void loadNotifications() {
         log.info("Loading notifications.");
 
-        ObservableList<Notification> notifications;
-        List<Notification> notificationList = entityManager.findAllEntities(Notification.class);
+        Field idField;
+        try {
+            idField = Notification.class.getDeclaredField("idNotification");
+        } catch (NoSuchFieldException e) {
+            log.error("Field 'idNotification' not found in Notification.", e);
+            return;
+        }
+
+        notificationLoader = new PagedTableLoader<>(notificationTable);
+        notificationLoader.load(afterKey ->
+                entityManager.findPage(Notification.class, idField, afterKey, PAGE_SIZE, Map.of(), true).y());
 
-        if (notificationList == null || notificationList.isEmpty()) {
+        if (notificationTable.getItems().isEmpty()) {
             log.warn("No notifications found.");
-            notifications = FXCollections.observableArrayList();
             logEmployee.createLog("Load Notifications", "No notifications found.");
         } else {
-            log.info("Found {} notifications.", notificationList.size());
-            notifications = FXCollections.observableArrayList(notificationList);
-            logEmployee.createLog("Load Notifications", "Loaded " + notificationList.size() + " notifications.");
+            log.info("Loaded first {} notifications.", notificationTable.getItems().size());
+            logEmployee.createLog("Load Notifications", "Loaded " + notificationTable.getItems().size() + " notifications.");
         }
 
-        notificationTable.setItems(notifications);
         notificationTable.refresh();
     }
 }
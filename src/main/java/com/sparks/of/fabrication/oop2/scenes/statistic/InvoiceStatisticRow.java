@@ -0,0 +1,11 @@
+package com.sparks.of.fabrication.oop2.scenes.statistic;
+
+/**
+ * Read-only row of the statistic invoice table, holding only the displayed columns.
+ *
+ * @param idInvoice      The invoice ID.
+ * @param idNomenclature The ID of the nomenclature of the invoice.
+ * @param finalPrice     The final price of the invoice.
+ */
+public record InvoiceStatisticRow(Long idInvoice, Long idNomenclature, Double finalPrice) {
+}
@@ -1,7 +1,5 @@
 package com.sparks.of.fabrication.oop2.scenes.statistic;
 
-import com.sparks.of.fabrication.oop2.models.InvoiceStore;
-import com.sparks.of.fabrication.oop2.models.Transaction;
 import com.sparks.of.fabrication.oop2.utils.Pair;
 import com.sparks.of.fabrication.oop2.utils.LogEmployee;
 import com.sparks.of.fabrication.oop2.utils.Singleton;
@@ -18,22 +16,22 @@ import java.time.LocalDate;
 public class StatisticController {
 
     @FXML
-    private TableView<Transaction> transactionTable;
+    private TableView<TransactionStatisticRow> transactionTable;
     @FXML
-    private TableColumn<Transaction, Long> transactionIdColumn;
+    private TableColumn<TransactionStatisticRow, Long> transactionIdColumn;
     @FXML
-    private TableColumn<Transaction, Double> transactionPriceColumn;
+    private TableColumn<TransactionStatisticRow, Double> transactionPriceColumn;
     @FXML
-    private TableColumn<Transaction, String> transactionDateColumn;
+    private TableColumn<TransactionStatisticRow, String> transactionDateColumn;
 
     @FXML
-    private TableView<InvoiceStore> invoiceTable;
+    private TableView<InvoiceStatisticRow> invoiceTable;
     @FXML
-    private TableColumn<InvoiceStore, Long> invoiceIdColumn;
+    private TableColumn<InvoiceStatisticRow, Long> invoiceIdColumn;
     @FXML
-    private TableColumn<InvoiceStore, Long> nomenclatureIdColumn;
+    private TableColumn<InvoiceStatisticRow, Long> nomenclatureIdColumn;
     @FXML
-    private TableColumn<InvoiceStore, Double> nomenclaturePriceColumn;
+    private TableColumn<InvoiceStatisticRow, Double> nomenclaturePriceColumn;
 
     @FXML
     private Label totalTransactionLabel;
@@ -1,23 +1,31 @@
 package com.sparks.of.fabrication.oop2.scenes.statistic;
 
 import com.sparks.of.fabrication.oop2.utils.Singleton;
-import com.sparks.of.fabrication.oop2.models.InvoiceStore;
-import com.sparks.of.fabrication.oop2.models.Transaction;
 import com.sparks.of.fabrication.oop2.utils.EntityManagerWrapper;
 import com.sparks.of.fabrication.oop2.utils.Pair;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.scene.control.TableView;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
-import java.lang.reflect.Field;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 /**
  * The StatisticServices class handles loading and calculating statistics for transactions and invoices within a date range.
  */
 public class StatisticServices {
 
+    private static final Logger log = LogManager.getLogger(StatisticServices.class);
+    private static final int FETCH_SIZE = 500;
+    private static final int DISPLAY_LIMIT = 1000;
+    private static final String TRANSACTION_ROWS = "SELECT new " + TransactionStatisticRow.class.getName()
+            + "(t.id, t.totalAmount, t.transactionDate) FROM Transaction t WHERE t.transactionDate BETWEEN :startDate AND :endDate";
+    private static final String INVOICE_ROWS = "SELECT new " + InvoiceStatisticRow.class.getName()
+            + "(i.idInvoice, n.idNomenclature, i.finalPrice) FROM InvoiceStore i JOIN i.nomenclatura n WHERE i.date BETWEEN :startDate AND :endDate";
     private final EntityManagerWrapper entityManagerWrapper = Singleton.getInstance(EntityManagerWrapper.class);
 
     /**
@@ -30,60 +38,72 @@ public class StatisticServices {
      * @return a pair of total transactions and total invoices amounts
      */
     public Pair<Double, Double> loadAndCalculateStatistics(LocalDate startDate, LocalDate endDate,
-                                                           TableView<Transaction> transactionTable,
-                                                           TableView<InvoiceStore> invoiceTable) {
+                                                           TableView<TransactionStatisticRow> transactionTable,
+                                                           TableView<InvoiceStatisticRow> invoiceTable) {
         double totalTransactions = loadTransactionData(startDate, endDate, transactionTable);
         double totalInvoices = loadInvoiceData(startDate, endDate, invoiceTable);
         return new Pair<>(totalTransactions, totalInvoices);
     }
 
     /**
-     * Loads transaction data between the specified dates.
+     * Streams transaction rows between the specified dates. The sum covers every transaction,
+     * while only the first {@value #DISPLAY_LIMIT} rows are kept for the table.
      *
      * @param startDate        the start date of the date range
      * @param endDate          the end date of the date range
      * @param transactionTable the table to display the transaction data
      * @return the sum of the transaction amounts
      */
-    private double loadTransactionData(LocalDate startDate, LocalDate endDate, TableView<Transaction> transactionTable) {
-        try {
-            Field transactionDateField = Transaction.class.getDeclaredField("transactionDate");
-            Pair<Boolean, List<Transaction>> result = entityManagerWrapper.findEntitiesBetweenDates(
-                    Transaction.class, transactionDateField, startDate, endDate);
+    private double loadTransactionData(LocalDate startDate, LocalDate endDate, TableView<TransactionStatisticRow> transactionTable) {
+        List<TransactionStatisticRow> displayed = new ArrayList<>();
+        double[] total = {0};
+        Pair<Boolean, Long> result = entityManagerWrapper.streamProjection(TransactionStatisticRow.class, TRANSACTION_ROWS,
+                Map.of("startDate", startDate, "endDate", endDate), FETCH_SIZE, row -> {
+                    total[0] += row.totalAmount();
+                    if (displayed.size() < DISPLAY_LIMIT) {
+                        displayed.add(row);
+                    }
+                });
 
-            if (result.x()) {
-                ObservableList<Transaction> transactionList = FXCollections.observableArrayList(result.y());
-                transactionTable.setItems(transactionList);
-                return transactionList.stream().mapToDouble(Transaction::getTotalAmount).sum();
-            }
-        } catch (NoSuchFieldException e) {
-            System.out.println("Error loading transaction data.");
+        if (result.x()) {
+            ObservableList<TransactionStatisticRow> transactionList = FXCollections.observableArrayList(displayed);
+            transactionTable.setItems(transactionList);
+            return total[0];
         }
+        Exception failure = entityManagerWrapper.getTransactionFailure();
+        log.error("Error loading transaction data between {} and {}: {}", startDate, endDate,
+                failure != null ? failure.getMessage() : "unknown cause", failure);
         return 0;
     }
 
     /**
-     * Loads invoice data between the specified dates.
+     * Streams invoice rows between the specified dates. The sum covers every invoice,
+     * while only the first {@value #DISPLAY_LIMIT} rows are kept for the table.
      *
      * @param startDate       the start date of the date range
      * @param endDate         the end date of the date range
      * @param invoiceTable    the table to display the invoice data
      * @return the sum of the invoice final prices
      */
-    private double loadInvoiceData(LocalDate startDate, LocalDate endDate, TableView<InvoiceStore> invoiceTable) {
-        try {
-            Field dateField = InvoiceStore.class.getDeclaredField("date");
-            Pair<Boolean, List<InvoiceStore>> result = entityManagerWrapper.findEntitiesBetweenDates(
-                    InvoiceStore.class, dateField, startDate, endDate);
+    private double loadInvoiceData(LocalDate startDate, LocalDate endDate, TableView<InvoiceStatisticRow> invoiceTable) {
+        List<InvoiceStatisticRow> displayed = new ArrayList<>();
+        double[] total = {0};
+        Pair<Boolean, Long> result = entityManagerWrapper.streamProjection(InvoiceStatisticRow.class, INVOICE_ROWS,
+                Map.of("startDate", startDate, "endDate", endDate), FETCH_SIZE, row -> {
+                    total[0] += row.finalPrice();
+                    if (displayed.size() < DISPLAY_LIMIT) {
+                        displayed.add(row);
+                    }
+                });
 
-            if (result.x()) {
-                ObservableList<InvoiceStore> invoiceList = FXCollections.observableArrayList(result.y());
-                invoiceTable.setItems(invoiceList);
-                return invoiceList.stream().mapToDouble(InvoiceStore::getFinalPrice).sum();
-            }
-        } catch (NoSuchFieldException e) {
-            System.out.println("Error loading invoice data.");
+        if (result.x()) {
+            ObservableList<InvoiceStatisticRow> invoiceList = FXCollections.observableArrayList(displayed);
+            invoiceTable.setItems(invoiceList);
+            return total[0];
         }
+        Exception failure = entityManagerWrapper.getTransactionFailure();
+        log.error("Error loading invoice data between {} and {}: {}", startDate, endDate,
+                failure != null ? failure.getMessage() : "unknown cause", failure);
         return 0;
     }
 }
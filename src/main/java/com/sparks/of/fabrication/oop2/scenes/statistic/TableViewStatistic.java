@@ -1,12 +1,9 @@
 package com.sparks.of.fabrication.oop2.scenes.statistic;
 
-import com.sparks.of.fabrication.oop2.models.InvoiceStore;
-import com.sparks.of.fabrication.oop2.models.Transaction;
-import javafx.beans.property.SimpleLongProperty;
+import javafx.beans.property.SimpleObjectProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
-import javafx.scene.control.cell.PropertyValueFactory;
 
 /**
  * The TableViewStatistic class configures the columns for displaying transaction and invoice data in a table view.
@@ -25,24 +22,23 @@ public class TableViewStatistic {
      * @param nomenclatureIdColumn     the column to display nomenclature IDs
      * @param nomenclaturePriceColumn  the column to display nomenclature final prices
      */
-    public static void configureTableColumns(TableView<Transaction> transactionTable,
-                                             TableColumn<Transaction, Long> transactionIdColumn,
-                                             TableColumn<Transaction, Double> transactionPriceColumn,
-                                             TableColumn<Transaction, String> transactionDateColumn,
-                                             TableView<InvoiceStore> invoiceTable,
-                                             TableColumn<InvoiceStore, Long> invoiceIdColumn,
-                                             TableColumn<InvoiceStore, Long> nomenclatureIdColumn,
-                                             TableColumn<InvoiceStore, Double> nomenclaturePriceColumn) {
+    public static void configureTableColumns(TableView<TransactionStatisticRow> transactionTable,
+                                             TableColumn<TransactionStatisticRow, Long> transactionIdColumn,
+                                             TableColumn<TransactionStatisticRow, Double> transactionPriceColumn,
+                                             TableColumn<TransactionStatisticRow, String> transactionDateColumn,
+                                             TableView<InvoiceStatisticRow> invoiceTable,
+                                             TableColumn<InvoiceStatisticRow, Long> invoiceIdColumn,
+                                             TableColumn<InvoiceStatisticRow, Long> nomenclatureIdColumn,
+                                             TableColumn<InvoiceStatisticRow, Double> nomenclaturePriceColumn) {
 
-        transactionIdColumn.setCellValueFactory(new PropertyValueFactory<>("id"));
-        transactionPriceColumn.setCellValueFactory(new PropertyValueFactory<>("totalAmount"));
+        transactionIdColumn.setCellValueFactory(cellData -> new SimpleObjectProperty<>(cellData.getValue().id()));
+        transactionPriceColumn.setCellValueFactory(cellData -> new SimpleObjectProperty<>(cellData.getValue().totalAmount()));
         transactionDateColumn.setCellValueFactory(cellData ->
-                new SimpleStringProperty(cellData.getValue().getTransactionDate().toString()));
+                new SimpleStringProperty(cellData.getValue().transactionDate().toString()));
 
-        invoiceIdColumn.setCellValueFactory(new PropertyValueFactory<>("idInvoice"));
-        nomenclatureIdColumn.setCellValueFactory(cellData ->
-                new SimpleLongProperty(cellData.getValue().getNomenclatura().getIdNomenclature()).asObject());
-        nomenclaturePriceColumn.setCellValueFactory(new PropertyValueFactory<>("finalPrice"));
+        invoiceIdColumn.setCellValueFactory(cellData -> new SimpleObjectProperty<>(cellData.getValue().idInvoice()));
+        nomenclatureIdColumn.setCellValueFactory(cellData -> new SimpleObjectProperty<>(cellData.getValue().idNomenclature()));
+        nomenclaturePriceColumn.setCellValueFactory(cellData -> new SimpleObjectProperty<>(cellData.getValue().finalPrice()));
 
         transactionIdColumn.prefWidthProperty().bind(transactionTable.widthProperty().multiply(0.20));
         transactionPriceColumn.prefWidthProperty().bind(transactionTable.widthProperty().multiply(0.40));
@@ -0,0 +1,13 @@
+package com.sparks.of.fabrication.oop2.scenes.statistic;
+
+import java.time.LocalDate;
+
+/**
+ * Read-only row of the statistic transaction table, holding only the displayed columns.
+ *
+ * @param id              The transaction ID.
+ * @param totalAmount     The total amount of the transaction.
+ * @param transactionDate The date of the transaction.
+ */
+public record TransactionStatisticRow(Long id, Double totalAmount, LocalDate transactionDate) {
+}
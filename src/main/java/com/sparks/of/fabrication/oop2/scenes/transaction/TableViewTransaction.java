@@ -1,7 +1,7 @@
 package com.sparks.of.fabrication.oop2.scenes.transaction;
 
 import com.sparks.of.fabrication.oop2.models.Transaction;
-import com.sparks.of.fabrication.oop2.models.TransactionDetail;
+import javafx.beans.property.SimpleObjectProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
@@ -32,19 +32,19 @@ public class TableViewTransaction {
                                              TableColumn<Transaction, String> employeeColumn,
                                              TableColumn<Transaction, String> checkoutColumn,
                                              TableColumn<Transaction, Double> totalAmountColumn,
-                                             TableView<TransactionDetail> transactionDetailsTable,
-                                             TableColumn<TransactionDetail, String> itemColumn,
-                                             TableColumn<TransactionDetail, Integer> quantityColumn,
-                                             TableColumn<TransactionDetail, Double> priceColumn) {
+                                             TableView<TransactionDetailRow> transactionDetailsTable,
+                                             TableColumn<TransactionDetailRow, String> itemColumn,
+                                             TableColumn<TransactionDetailRow, Integer> quantityColumn,
+                                             TableColumn<TransactionDetailRow, Double> priceColumn) {
 
         idColumn.setCellValueFactory(new PropertyValueFactory<>("id"));
         clientColumn.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().getClient().getName()));
         employeeColumn.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().getEmployee().getName()));
         checkoutColumn.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().getCheckout().getIdCheckout().toString()));
         totalAmountColumn.setCellValueFactory(new PropertyValueFactory<>("totalAmount"));
-        itemColumn.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().getItem().getName()));
-        quantityColumn.setCellValueFactory(new PropertyValueFactory<>("quantity"));
-        priceColumn.setCellValueFactory(new PropertyValueFactory<>("price"));
+        itemColumn.setCellValueFactory(cellData -> new SimpleStringProperty(cellData.getValue().itemName()));
+        quantityColumn.setCellValueFactory(cellData -> new SimpleObjectProperty<>(cellData.getValue().quantity()));
+        priceColumn.setCellValueFactory(cellData -> new SimpleObjectProperty<>(cellData.getValue().price()));
 
         idColumn.prefWidthProperty().bind(transactionTable.widthProperty().multiply(0.10));
         clientColumn.prefWidthProperty().bind(transactionTable.widthProperty().multiply(0.25));
@@ -1,7 +1,6 @@
 package com.sparks.of.fabrication.oop2.scenes.transaction;
 
 import com.sparks.of.fabrication.oop2.models.Transaction;
-import com.sparks.of.fabrication.oop2.models.TransactionDetail;
 import com.sparks.of.fabrication.oop2.utils.LogEmployee;
 import com.sparks.of.fabrication.oop2.utils.Singleton;
 import org.apache.logging.log4j.LogManager;
@@ -30,13 +29,13 @@ public class TransactionController {
     private TableColumn<Transaction, Double> totalAmountColumn;
 
     @FXML
-    private TableView<TransactionDetail> transactionDetailsTable;
+    private TableView<TransactionDetailRow> transactionDetailsTable;
     @FXML
-    private TableColumn<TransactionDetail, String> itemColumn;
+    private TableColumn<TransactionDetailRow, String> itemColumn;
     @FXML
-    private TableColumn<TransactionDetail, Integer> quantityColumn;
+    private TableColumn<TransactionDetailRow, Integer> quantityColumn;
     @FXML
-    private TableColumn<TransactionDetail, Double> priceColumn;
+    private TableColumn<TransactionDetailRow, Double> priceColumn;
 
     @FXML
     private DatePicker datePicker;
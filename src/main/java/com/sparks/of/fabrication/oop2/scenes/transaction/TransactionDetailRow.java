@@ -0,0 +1,11 @@
+package com.sparks.of.fabrication.oop2.scenes.transaction;
+
+/**
+ * Read-only row of the transaction details table, holding only the displayed columns.
+ *
+ * @param itemName The name of the sold item.
+ * @param quantity The sold quantity.
+ * @param price    The price of the line.
+ */
+public record TransactionDetailRow(String itemName, Integer quantity, Double price) {
+}
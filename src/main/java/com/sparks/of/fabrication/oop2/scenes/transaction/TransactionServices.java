@@ -2,47 +2,79 @@ package com.sparks.of.fabrication.oop2.scenes.transaction;
 
 import com.sparks.of.fabrication.oop2.utils.Singleton;
 import com.sparks.of.fabrication.oop2.models.Transaction;
-import com.sparks.of.fabrication.oop2.models.TransactionDetail;
+import com.sparks.of.fabrication.oop2.utils.AsyncEntityManagerWrapper;
 import com.sparks.of.fabrication.oop2.utils.EntityManagerWrapper;
+import com.sparks.of.fabrication.oop2.utils.PagedTableLoader;
+import com.sparks.of.fabrication.oop2.utils.Pair;
 import javafx.scene.control.TableView;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 import java.lang.reflect.Field;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 /**
  * The TransactionServices class provides methods for loading, filtering, and displaying transactions and their details.
  */
 public class TransactionServices {
 
+    private static final int PAGE_SIZE = 100;
+    private static final String DETAIL_ROWS = "SELECT new " + TransactionDetailRow.class.getName()
+            + "(i.name, d.quantity, d.price) FROM TransactionDetail d JOIN d.item i WHERE d.transaction.id = :transactionId";
+    private static final Logger log = LogManager.getLogger(TransactionServices.class);
     private final EntityManagerWrapper entityManagerWrapper = Singleton.getInstance(EntityManagerWrapper.class);
+    private final AsyncEntityManagerWrapper asyncEntityManagerWrapper = Singleton.getInstance(AsyncEntityManagerWrapper.class);
+    private PagedTableLoader<Transaction> transactionLoader;
 
     /**
-     * Loads all transactions into the provided table.
+     * Loads the newest transactions into the provided table, further pages follow as the user scrolls.
      *
      * @param transactionTable The table where the transactions will be displayed.
      */
     public void loadTransactions(TableView<Transaction> transactionTable) {
-        List<Transaction> transactions = entityManagerWrapper.findAllEntities(Transaction.class);
-        transactionTable.getItems().setAll(transactions);
+        loadTransactionPages(transactionTable, Map.of());
     }
 
     /**
-     * Loads the details of the selected transaction into the provided table.
+     * Loads the transactions matching the given filters page by page into the provided table, newest first.
      *
-     * @param selectedTransaction The transaction whose details need to be loaded.
-     * @param transactionDetailsTable The table where the transaction details will be displayed.
+     * @param transactionTable The table where the transactions will be displayed.
+     * @param filters The fields and values the transactions must be equal to.
      */
-    public void loadTransactionDetails(Transaction selectedTransaction, TableView<TransactionDetail> transactionDetailsTable) {
+    private void loadTransactionPages(TableView<Transaction> transactionTable, Map<Field, ?> filters) {
         try {
-            Field field = TransactionDetail.class.getDeclaredField("transaction");
-            List<TransactionDetail> details = entityManagerWrapper.findEntityByValAll(TransactionDetail.class, field, selectedTransaction).y();
-            transactionDetailsTable.getItems().setAll(details);
+            Field idField = Transaction.class.getDeclaredField("id");
+            if (transactionLoader == null) {
+                transactionLoader = new PagedTableLoader<>(transactionTable);
+            }
+            transactionLoader.load(afterKey ->
+                    entityManagerWrapper.findPage(Transaction.class, idField, afterKey, PAGE_SIZE, filters, true).y());
         } catch (NoSuchFieldException e) {
-            throw new RuntimeException("Error loading transaction details: " + e.getMessage(), e);
+            throw new RuntimeException("Error loading transactions: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Loads the details of the selected transaction into the provided table without blocking the UI.
+     * Selecting another transaction before the details arrive abandons the previous request.
+     *
+     * @param selectedTransaction The transaction whose details need to be loaded.
+     * @param transactionDetailsTable The table where the transaction details will be displayed.
+     */
+    public void loadTransactionDetails(Transaction selectedTransaction, TableView<TransactionDetailRow> transactionDetailsTable) {
+        asyncEntityManagerWrapper.<Pair<Boolean, List<TransactionDetailRow>>>submitLatest(transactionDetailsTable, wrapper ->
+                        wrapper.findProjection(TransactionDetailRow.class, DETAIL_ROWS, Map.of("transactionId", selectedTransaction.getId()), 0))
+                .thenAccept(details -> {
+                    if (!details.x()) {
+                        log.error("Error loading transaction details for transaction {}", selectedTransaction.getId());
+                        return;
+                    }
+                    transactionDetailsTable.getItems().setAll(details.y());
+                });
+    }
+
     /**
      * Filters transactions by the specified date and loads them into the provided table.
      * If no date is provided, all transactions are loaded.
@@ -54,8 +86,7 @@ public class TransactionServices {
         try {
             if (date != null) {
                 Field field = Transaction.class.getDeclaredField("transactionDate");
-                List<Transaction> filteredTransactions = entityManagerWrapper.findEntityByValAll(Transaction.class, field, date).y();
-                transactionTable.getItems().setAll(filteredTransactions);
+                loadTransactionPages(transactionTable, Map.of(field, date));
             } else {
                 loadTransactions(transactionTable);
             }
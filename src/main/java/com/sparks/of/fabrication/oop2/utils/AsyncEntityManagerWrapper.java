@@ -0,0 +1,165 @@
+package com.sparks.of.fabrication.oop2.utils;
+
+import javafx.application.Platform;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Asynchronous facade over {@link EntityManagerWrapper} that keeps database work off the JavaFX application thread.
+ * <p>
+ * Every request runs on its own virtual thread inside {@link EntityManagerWrapper#inUnitOfWork(Supplier)},
+ * so it gets an EntityManager confined to that thread. The returned future completes on the FX thread,
+ * which lets callers update controls directly in {@code thenAccept}. Cancelling the future stops a request
+ * that has not started yet; a running request is never interrupted, since an interrupt closes the socket of
+ * the pooled connection it is using, so it finishes and its result is dropped instead of delivered.
+ */
+public class AsyncEntityManagerWrapper {
+
+    private static final Logger log = LogManager.getLogger(AsyncEntityManagerWrapper.class);
+
+    private final EntityManagerWrapper entityManagerWrapper;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<Object, CompletableFuture<?>> latestRequests = new ConcurrentHashMap<>();
+
+    /**
+     * Creates the facade over the given wrapper.
+     *
+     * @param entityManagerWrapper The wrapper running the database work.
+     */
+    public AsyncEntityManagerWrapper(EntityManagerWrapper entityManagerWrapper) {
+        this.entityManagerWrapper = entityManagerWrapper;
+    }
+
+    /**
+     * Runs the given database work on a virtual thread.
+     *
+     * @param work The work to run, receiving the wrapper to call.
+     * @param <R> The type of the result.
+     * @return A future completed on the FX thread with the result of the work.
+     */
+    public <R> CompletableFuture<R> submit(Function<EntityManagerWrapper, R> work) {
+        CompletableFuture<R> result = new CompletableFuture<>();
+        Future<?> task = executor.submit(() -> {
+            try {
+                R value = entityManagerWrapper.inUnitOfWork(() -> work.apply(entityManagerWrapper));
+                if (!result.isDone()) {
+                    Platform.runLater(() -> result.complete(value));
+                }
+            } catch (Exception e) {
+                log.error("Error running asynchronous database request: {}", e.getMessage(), e);
+                if (!result.isDone()) {
+                    Platform.runLater(() -> result.completeExceptionally(e));
+                }
+            }
+        });
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                task.cancel(false);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Runs the given database work on a virtual thread, cancelling the previous request made with the same key.
+     * Use it for requests that supersede each other, such as one search per keystroke.
+     *
+     * @param key Identifies the sequence of requests, e.g. the control issuing them.
+     * @param work The work to run, receiving the wrapper to call.
+     * @param <R> The type of the result.
+     * @return A future completed on the FX thread with the result of the work.
+     */
+    public <R> CompletableFuture<R> submitLatest(Object key, Function<EntityManagerWrapper, R> work) {
+        CompletableFuture<R> result = submit(work);
+        CompletableFuture<?> previous = latestRequests.put(key, result);
+        if (previous != null) {
+            previous.cancel(false);
+        }
+        result.whenComplete((value, error) -> latestRequests.remove(key, result));
+        return result;
+    }
+
+    /**
+     * Runs the given work as one database transaction on a virtual thread,
+     * see {@link EntityManagerWrapper#inTransaction(Supplier)}.
+     *
+     * @param work The work to run.
+     * @param <R> The type of the result.
+     * @return A future completed on the FX thread with the success flag and the result of the work.
+     */
+    public <R> CompletableFuture<Pair<Boolean, R>> inTransaction(Supplier<R> work) {
+        return submit(wrapper -> wrapper.inTransaction(work));
+    }
+
+    /**
+     * Finds an entity by its ID without blocking the caller.
+     *
+     * @param tClass The class of the entity to search for.
+     * @param id The ID of the entity to search for.
+     * @param <T> The type of the entity.
+     * @return A future completed on the FX thread with the success flag and the found entity.
+     */
+    public <T> CompletableFuture<Pair<Boolean, T>> findEntityById(Class<T> tClass, int id) {
+        return submit(wrapper -> wrapper.findEntityById(tClass, id));
+    }
+
+    /**
+     * Finds all entities of a given class without blocking the caller.
+     *
+     * @param tClass The class of the entities to search for.
+     * @param <T> The type of the entity.
+     * @return A future completed on the FX thread with the found entities.
+     */
+    public <T> CompletableFuture<List<T>> findAllEntities(Class<T> tClass) {
+        return submit(wrapper -> wrapper.findAllEntities(tClass));
+    }
+
+    /**
+     * Finds all entities whose field contains the given value without blocking the caller.
+     *
+     * @param tClass The class of the entities to search for.
+     * @param field The field to search by.
+     * @param value The value to search for.
+     * @param <T> The type of the entity.
+     * @param <Y> The type of the value.
+     * @return A future completed on the FX thread with the success flag and the found entities.
+     */
+    public <T, Y> CompletableFuture<Pair<Boolean, List<T>>> findEntityByValAllLikeR(Class<T> tClass, Field field, Y value) {
+        return submit(wrapper -> wrapper.findEntityByValAllLikeR(tClass, field, value));
+    }
+
+    /**
+     * Runs a projection query without blocking the caller,
+     * see {@link EntityManagerWrapper#findProjection(Class, String, Map, int)}.
+     *
+     * @param rowClass The class of the rows built by the constructor expression of the query.
+     * @param jpql The projection query.
+     * @param parameters The named parameters of the query.
+     * @param limit The maximum number of rows to return, or zero for all rows.
+     * @param <R> The type of the rows.
+     * @return A future completed on the FX thread with the success flag and the list of rows.
+     */
+    public <R> CompletableFuture<Pair<Boolean, List<R>>> findProjection(Class<R> rowClass, String jpql,
+                                                                        Map<String, ?> parameters, int limit) {
+        return submit(wrapper -> wrapper.findProjection(rowClass, jpql, parameters, limit));
+    }
+
+    /**
+     * Cancels the waiting requests and stops accepting new ones. Running requests finish without being interrupted.
+     */
+    public void shutdown() {
+        latestRequests.values().forEach(request -> request.cancel(false));
+        executor.shutdown();
+    }
+}
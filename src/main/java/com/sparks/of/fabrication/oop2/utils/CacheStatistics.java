@@ -0,0 +1,112 @@
+package com.sparks.of.fabrication.oop2.utils;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Reads the second-level and query cache statistics of the jpaOOP persistence unit.
+ * Hits, misses and puts come from Hibernate; evictions come from the cache provider,
+ * which publishes them through JMX.
+ */
+public class CacheStatistics {
+
+    private static final Logger log = LogManager.getLogger(CacheStatistics.class);
+
+    private final Statistics statistics;
+
+    /**
+     * Snapshot of the usage of one cache region.
+     *
+     * @param region    The name of the cache region.
+     * @param hits      The number of lookups answered by the cache.
+     * @param misses    The number of lookups that had to go to the database.
+     * @param puts      The number of entries put into the cache.
+     * @param evictions The number of entries evicted by the size or time bounds.
+     * @param entries   The number of entries currently held in memory, or -1 if unknown.
+     */
+    public record RegionStats(String region, long hits, long misses, long puts, long evictions, long entries) {
+
+        /**
+         * Gets the share of lookups answered by the cache.
+         *
+         * @return The hit ratio between 0 and 1, or 0 if there were no lookups.
+         */
+        public double hitRatio() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0 : (double) hits / lookups;
+        }
+    }
+
+    /**
+     * Creates the statistics reader for the given factory.
+     *
+     * @param emf The factory whose caches are inspected.
+     */
+    public CacheStatistics(EntityManagerFactory emf) {
+        this.statistics = emf.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    /**
+     * Reads the statistics of every cache region.
+     *
+     * @return One snapshot per cache region.
+     */
+    public List<RegionStats> getRegionStats() {
+        List<RegionStats> regions = new ArrayList<>();
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(region);
+            if (regionStatistics == null) {
+                continue;
+            }
+            regions.add(new RegionStats(region, regionStatistics.getHitCount(), regionStatistics.getMissCount(),
+                    regionStatistics.getPutCount(), readEvictions(region), regionStatistics.getElementCountInMemory()));
+        }
+        return regions;
+    }
+
+    /**
+     * Writes the statistics of every cache region to the log.
+     */
+    public void logStats() {
+        for (RegionStats stats : getRegionStats()) {
+            log.info("Cache {}: hits={} misses={} puts={} evictions={} entries={} hitRatio={}",
+                    stats.region(), stats.hits(), stats.misses(), stats.puts(), stats.evictions(), stats.entries(),
+                    String.format("%.2f", stats.hitRatio()));
+        }
+        log.info("Query cache: hits={} misses={} puts={}", statistics.getQueryCacheHitCount(),
+                statistics.getQueryCacheMissCount(), statistics.getQueryCachePutCount());
+    }
+
+    /**
+     * Reads the eviction count of a cache region from the statistics bean of the cache provider.
+     *
+     * @param region The name of the cache region.
+     * @return The number of evictions, or 0 if the provider does not publish them.
+     */
+    private static long readEvictions(String region) {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            Set<ObjectName> names = server.queryNames(
+                    new ObjectName("javax.cache:type=CacheStatistics,Cache=" + region + ",*"), null);
+            long evictions = 0;
+            for (ObjectName name : names) {
+                evictions += ((Number) server.getAttribute(name, "CacheEvictions")).longValue();
+            }
+            return evictions;
+        } catch (Exception e) {
+            log.debug("Could not read evictions of cache {}: {}", region, e.getMessage());
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package com.sparks.of.fabrication.oop2.utils;
+
+import com.sparks.of.fabrication.oop2.models.CashMovement;
+import com.sparks.of.fabrication.oop2.models.CashMovementType;
+import com.sparks.of.fabrication.oop2.models.CashSnapshot;
+import com.sparks.of.fabrication.oop2.models.Checkout;
+import com.sparks.of.fabrication.oop2.models.Employee;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Append-only ledger of the cash movements of every checkout drawer.
+ * <p>
+ * Every change of a drawer is inserted as a {@link CashMovement}; nothing is ever read, changed in memory and
+ * written back, so concurrent changes cannot overwrite each other. Every {@value #SNAPSHOT_INTERVAL} movements
+ * the running totals are stored as a {@link CashSnapshot}, so the balance is the latest snapshot plus a short
+ * tail of movements summed by the database. A snapshot taken when a lane opens marks the start of its shift,
+ * which makes the end-of-shift reconciliation the difference of two sets of totals.
+ * <p>
+ * Each movement also adds its amount to {@code checkout.cash} with an atomic update. The row lock taken by
+ * that update orders all movements of a checkout, so movement ids increase in commit order and a snapshot
+ * never skips a movement that commits later.
+ */
+public class CashLedger {
+
+    private static final Logger log = LogManager.getLogger(CashLedger.class);
+    private static final int SNAPSHOT_INTERVAL = 64;
+    private static final String ADD_CASH = "UPDATE checkout SET cash = COALESCE(cash, 0) + ? WHERE id_checkout = ?";
+    private static final String LATEST_SNAPSHOT =
+            "SELECT s FROM CashSnapshot s WHERE s.checkout.idCheckout = :checkout ORDER BY s.idCashSnapshot DESC";
+    private static final String LATEST_SHIFT_START =
+            "SELECT s FROM CashSnapshot s WHERE s.checkout.idCheckout = :checkout AND s.shiftStart = true ORDER BY s.idCashSnapshot DESC";
+    private static final String TAIL_TOTALS = "SELECT new " + CashMovementTotal.class.getName()
+            + "(m.type, SUM(m.amountMinor), COUNT(m), MAX(m.idCashMovement)) FROM CashMovement m"
+            + " WHERE m.checkout.idCheckout = :checkout AND m.idCashMovement > :after GROUP BY m.type";
+    private static final String CHECKOUT_CASH = "SELECT c.cash FROM Checkout c WHERE c.idCheckout = :checkout";
+
+    private final EntityManagerWrapper entityManagerWrapper;
+    private final Set<Long> openShifts = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Creates the ledger over the given wrapper.
+     *
+     * @param entityManagerWrapper The wrapper running the database work.
+     */
+    public CashLedger(EntityManagerWrapper entityManagerWrapper) {
+        this.entityManagerWrapper = entityManagerWrapper;
+    }
+
+    /**
+     * Appends a cash movement to the ledger of a checkout. Joins the current transaction if there is one.
+     *
+     * @param checkout The checkout whose drawer changed.
+     * @param employee The employee making the movement.
+     * @param type The reason of the movement.
+     * @param amountMinor The signed amount in cents; negative when cash leaves the drawer.
+     * @param reference What the movement refers to, or null.
+     * @return A Pair containing a success flag and the new balance in cents.
+     */
+    public Pair<Boolean, Long> record(Checkout checkout, Employee employee, CashMovementType type, long amountMinor, String reference) {
+        Pair<Boolean, Long> result = entityManagerWrapper.inTransaction(() -> {
+            CashSnapshot snapshot = lockLedger(checkout, amountMinor);
+            CashMovement movement = new CashMovement(null, checkout, employee, type, amountMinor, reference, LocalDateTime.now());
+            if (!entityManagerWrapper.genEntity(movement)) {
+                throw new IllegalStateException("Could not record the cash movement");
+            }
+            CashTotals totals = currentTotals(checkout.getIdCheckout(), snapshot);
+            if (totals.movements() - snapshot.getMovements() >= SNAPSHOT_INTERVAL) {
+                takeSnapshot(checkout, totals, false);
+            }
+            return totals.balanceMinor();
+        });
+        if (!result.x()) {
+            log.error("Could not record {} of {} cents for checkout {}", type, amountMinor, checkout.getIdCheckout());
+        }
+        return result;
+    }
+
+    /**
+     * Corrects the balance of a checkout to a counted amount by appending the difference.
+     *
+     * @param checkout The checkout whose drawer was counted.
+     * @param employee The employee making the correction.
+     * @param countedMinor The counted amount in cents.
+     * @param reference Why the drawer was corrected.
+     * @return A Pair containing a success flag and the new balance in cents.
+     */
+    public Pair<Boolean, Long> correctTo(Checkout checkout, Employee employee, long countedMinor, String reference) {
+        return entityManagerWrapper.inTransaction(() -> {
+            CashSnapshot snapshot = lockLedger(checkout, 0);
+            long balanceMinor = currentTotals(checkout.getIdCheckout(), snapshot).balanceMinor();
+            Pair<Boolean, Long> corrected = record(checkout, employee, CashMovementType.CORRECTION,
+                    countedMinor - balanceMinor, reference);
+            if (!corrected.x()) {
+                throw new IllegalStateException("Could not correct the balance of checkout " + checkout.getIdCheckout());
+            }
+            return corrected.y();
+        });
+    }
+
+    /**
+     * Gets the current balance of a checkout from its latest snapshot and the movements made after it.
+     *
+     * @param checkoutId The id of the checkout.
+     * @return A Pair containing a success flag and the balance in cents.
+     */
+    public Pair<Boolean, Long> balance(long checkoutId) {
+        try {
+            CashSnapshot snapshot = latestSnapshot(checkoutId, LATEST_SNAPSHOT);
+            if (snapshot == null) {
+                return new Pair<>(true, legacyCash(checkoutId));
+            }
+            return new Pair<>(true, currentTotals(checkoutId, snapshot).balanceMinor());
+        } catch (Exception e) {
+            log.error("Could not read the balance of checkout {}: {}", checkoutId, e.getMessage());
+            return new Pair<>(false, 0L);
+        }
+    }
+
+    /**
+     * Starts a shift on a checkout by taking a snapshot of its ledger.
+     *
+     * @param checkout The checkout of the lane.
+     * @return A Pair containing a success flag and the balance at the start of the shift in cents.
+     */
+    public Pair<Boolean, Long> openShift(Checkout checkout) {
+        Pair<Boolean, Long> result = entityManagerWrapper.inTransaction(() -> {
+            CashSnapshot snapshot = lockLedger(checkout, 0);
+            CashTotals totals = currentTotals(checkout.getIdCheckout(), snapshot);
+            takeSnapshot(checkout, totals, true);
+            return totals.balanceMinor();
+        });
+        if (result.x()) {
+            openShifts.add(checkout.getIdCheckout());
+            log.info("Shift opened on checkout {} with {} cents", checkout.getIdCheckout(), result.y());
+        }
+        return result;
+    }
+
+    /**
+     * Reconciles the current shift of a checkout: the opening balance, the totals of every movement type
+     * during the shift and the amount that should be in the drawer.
+     *
+     * @param checkoutId The id of the checkout.
+     * @return A Pair containing a success flag and the reconciliation, or null if no shift was opened.
+     */
+    public Pair<Boolean, ShiftReconciliation> reconcile(long checkoutId) {
+        try {
+            CashSnapshot shiftStart = latestSnapshot(checkoutId, LATEST_SHIFT_START);
+            if (shiftStart == null) {
+                return new Pair<>(true, null);
+            }
+            CashTotals opening = CashTotals.of(shiftStart);
+            CashTotals current = currentTotals(checkoutId, latestSnapshot(checkoutId, LATEST_SNAPSHOT));
+            return new Pair<>(true, new ShiftReconciliation(checkoutId, shiftStart.getTakenAt(), opening.balanceMinor(),
+                    current.minus(opening), current.balanceMinor()));
+        } catch (Exception e) {
+            log.error("Could not reconcile checkout {}: {}", checkoutId, e.getMessage());
+            return new Pair<>(false, null);
+        }
+    }
+
+    /**
+     * Writes the reconciliation of every shift opened by this application to the log.
+     */
+    public void logOpenShifts() {
+        for (Long checkoutId : openShifts) {
+            Pair<Boolean, ShiftReconciliation> reconciliation = reconcile(checkoutId);
+            if (reconciliation.x() && reconciliation.y() != null) {
+                log.info("Shift reconciliation: {}", reconciliation.y().describe());
+            }
+        }
+    }
+
+    /**
+     * Converts an amount to cents.
+     *
+     * @param amount The amount.
+     * @return The amount in cents.
+     */
+    public static long toMinor(double amount) {
+        return Math.round(amount * 100);
+    }
+
+    /**
+     * Adds an amount to the cash column of a checkout, which locks its ledger until the transaction ends,
+     * and gets the latest snapshot. A checkout without snapshots gets one holding the balance it had
+     * before the ledger existed.
+     *
+     * @param checkout The checkout.
+     * @param amountMinor The amount in cents to add.
+     * @return The latest snapshot of the checkout.
+     */
+    private CashSnapshot lockLedger(Checkout checkout, long amountMinor) {
+        long checkoutId = checkout.getIdCheckout();
+        Pair<Boolean, int[]> updated = entityManagerWrapper.executeBatchUpdate(ADD_CASH,
+                List.<Object[]>of(new Object[]{amountMinor / 100.0, checkoutId}));
+        if (!updated.x() || updated.y()[0] == 0) {
+            throw new IllegalStateException("Checkout " + checkoutId + " could not be updated");
+        }
+        CashSnapshot snapshot = latestSnapshot(checkoutId, LATEST_SNAPSHOT);
+        if (snapshot != null) {
+            return snapshot;
+        }
+        long openingMinor = legacyCash(checkoutId) - amountMinor;
+        return takeSnapshot(checkout, new CashTotals(0, 0, 0, 0, 0, openingMinor), false);
+    }
+
+    /**
+     * Finds the latest snapshot of a checkout.
+     *
+     * @param checkoutId The id of the checkout.
+     * @param jpql The query selecting the snapshots, newest first.
+     * @return The latest snapshot, or null if there is none.
+     */
+    private CashSnapshot latestSnapshot(long checkoutId, String jpql) {
+        Pair<Boolean, List<CashSnapshot>> snapshots = entityManagerWrapper.findProjection(CashSnapshot.class, jpql,
+                Map.of("checkout", checkoutId), 1);
+        if (!snapshots.x()) {
+            throw new IllegalStateException("Could not read the snapshots of checkout " + checkoutId);
+        }
+        return snapshots.y().isEmpty() ? null : snapshots.y().getFirst();
+    }
+
+    /**
+     * Adds the movements made after a snapshot to its totals.
+     *
+     * @param checkoutId The id of the checkout.
+     * @param snapshot The latest snapshot of the checkout.
+     * @return The current totals of the ledger.
+     */
+    private CashTotals currentTotals(long checkoutId, CashSnapshot snapshot) {
+        Pair<Boolean, List<CashMovementTotal>> tail = entityManagerWrapper.findProjection(CashMovementTotal.class, TAIL_TOTALS,
+                Map.of("checkout", checkoutId, "after", snapshot.getLastMovementId()), 0);
+        if (!tail.x()) {
+            throw new IllegalStateException("Could not read the cash movements of checkout " + checkoutId);
+        }
+        CashTotals totals = CashTotals.of(snapshot);
+        for (CashMovementTotal total : tail.y()) {
+            totals = totals.plus(total);
+        }
+        return totals;
+    }
+
+    /**
+     * Stores the totals of a checkout's ledger as a snapshot.
+     *
+     * @param checkout The checkout.
+     * @param totals The totals to store.
+     * @param shiftStart Whether the snapshot starts a shift.
+     * @return The stored snapshot.
+     */
+    private CashSnapshot takeSnapshot(Checkout checkout, CashTotals totals, boolean shiftStart) {
+        CashSnapshot snapshot = new CashSnapshot(null, checkout, totals.lastMovementId(), totals.movements(),
+                totals.salesMinor(), totals.cashInMinor(), totals.cashOutMinor(), totals.correctionsMinor(),
+                shiftStart, LocalDateTime.now());
+        if (!entityManagerWrapper.genEntity(snapshot)) {
+            throw new IllegalStateException("Could not store a snapshot of checkout " + checkout.getIdCheckout());
+        }
+        return snapshot;
+    }
+
+    /**
+     * Reads the cash column of a checkout.
+     *
+     * @param checkoutId The id of the checkout.
+     * @return The cash of the checkout in cents.
+     */
+    private long legacyCash(long checkoutId) {
+        Pair<Boolean, List<Double>> cash = entityManagerWrapper.findProjection(Double.class, CHECKOUT_CASH,
+                Map.of("checkout", checkoutId), 1);
+        if (!cash.x() || cash.y().isEmpty()) {
+            throw new IllegalStateException("Could not read the cash of checkout " + checkoutId);
+        }
+        Double amount = cash.y().getFirst();
+        return amount == null ? 0 : toMinor(amount);
+    }
+}
@@ -0,0 +1,14 @@
+package com.sparks.of.fabrication.oop2.utils;
+
+import com.sparks.of.fabrication.oop2.models.CashMovementType;
+
+/**
+ * Sum of the cash movements of one type made after a snapshot.
+ *
+ * @param type           The type of the movements.
+ * @param amountMinor    The sum of the amounts in cents.
+ * @param movements      The number of movements.
+ * @param lastMovementId The highest movement id among them.
+ */
+public record CashMovementTotal(CashMovementType type, Long amountMinor, Long movements, Long lastMovementId) {
+}
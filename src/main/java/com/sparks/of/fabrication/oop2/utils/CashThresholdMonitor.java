@@ -0,0 +1,119 @@
+package com.sparks.of.fabrication.oop2.utils;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Watches the cash balance of every checkout and reports when it crosses its low cash threshold.
+ * <p>
+ * The monitor keeps whether each checkout is low in memory and only reports the edges: a checkout becomes
+ * low when its balance drops below the threshold, and only recovers once the balance is back at the threshold
+ * plus the hysteresis. A balance moving around the threshold therefore raises a single alert, and a lane that
+ * stays low raises none after the first. Thresholds default to {@code LOW_CASH_THRESHOLD} and can be set per
+ * checkout in {@code LOW_CASH_THRESHOLDS} or with {@link #setThreshold(long, long)}.
+ */
+public class CashThresholdMonitor {
+
+    /**
+     * The change of state caused by a new balance.
+     */
+    public enum Transition {
+        /**
+         * The checkout stayed on the same side of its threshold.
+         */
+        NONE,
+        /**
+         * The balance dropped below the threshold.
+         */
+        DROPPED,
+        /**
+         * The balance climbed back above the threshold plus the hysteresis.
+         */
+        RECOVERED
+    }
+
+    private static final Logger log = LogManager.getLogger(CashThresholdMonitor.class);
+
+    private final long defaultThresholdMinor;
+    private final long hysteresisMinor;
+    private final Map<Long, Long> thresholds = new ConcurrentHashMap<>();
+    private final Map<Long, Boolean> low = new ConcurrentHashMap<>();
+
+    /**
+     * Creates the monitor with the thresholds configured in the environment.
+     *
+     * @param env The environment holding the thresholds.
+     */
+    public CashThresholdMonitor(Env env) {
+        this.defaultThresholdMinor = CashLedger.toMinor(env.getLowCashThreshold());
+        this.hysteresisMinor = CashLedger.toMinor(env.getLowCashHysteresis());
+        parseThresholds(env.getLowCashThresholds());
+    }
+
+    /**
+     * Records the current balance of a checkout.
+     *
+     * @param checkoutId The id of the checkout.
+     * @param balanceMinor The balance in cents.
+     * @return The change of state caused by the balance.
+     */
+    public Transition update(long checkoutId, long balanceMinor) {
+        long threshold = getThreshold(checkoutId);
+        Transition[] transition = {Transition.NONE};
+        low.compute(checkoutId, (id, wasLow) -> {
+            boolean isLow = wasLow != null && wasLow;
+            if (!isLow && balanceMinor < threshold) {
+                transition[0] = Transition.DROPPED;
+                return true;
+            }
+            if (isLow && balanceMinor >= threshold + hysteresisMinor) {
+                transition[0] = Transition.RECOVERED;
+                return false;
+            }
+            return isLow;
+        });
+        return transition[0];
+    }
+
+    /**
+     * Gets the low cash threshold of a checkout.
+     *
+     * @param checkoutId The id of the checkout.
+     * @return The threshold in cents.
+     */
+    public long getThreshold(long checkoutId) {
+        return thresholds.getOrDefault(checkoutId, defaultThresholdMinor);
+    }
+
+    /**
+     * Sets the low cash threshold of a checkout.
+     *
+     * @param checkoutId The id of the checkout.
+     * @param thresholdMinor The threshold in cents.
+     */
+    public void setThreshold(long checkoutId, long thresholdMinor) {
+        thresholds.put(checkoutId, thresholdMinor);
+    }
+
+    /**
+     * Reads per-checkout thresholds given as "checkoutId:threshold" pairs separated by commas.
+     *
+     * @param config The thresholds, e.g. "3:500,7:100".
+     */
+    private void parseThresholds(String config) {
+        if (config == null || config.isBlank()) {
+            return;
+        }
+        for (String entry : config.split(",")) {
+            String[] parts = entry.trim().split(":");
+            try {
+                setThreshold(Long.parseLong(parts[0].trim()), CashLedger.toMinor(Double.parseDouble(parts[1].trim())));
+            } catch (RuntimeException e) {
+                log.error("Invalid low cash threshold \"{}\", expected checkoutId:threshold", entry);
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.sparks.of.fabrication.oop2.utils;
+
+import com.sparks.of.fabrication.oop2.models.CashMovementType;
+import com.sparks.of.fabrication.oop2.models.CashSnapshot;
+
+/**
+ * Running totals of a checkout's cash ledger, all amounts in cents.
+ *
+ * @param lastMovementId   The id of the last movement included, or zero if none is.
+ * @param movements        The number of movements included.
+ * @param salesMinor       The total of the sales.
+ * @param cashInMinor      The total of the cash put in.
+ * @param cashOutMinor     The total of the cash taken out, as a negative amount.
+ * @param correctionsMinor The total of the corrections.
+ */
+public record CashTotals(long lastMovementId, long movements, long salesMinor, long cashInMinor,
+                         long cashOutMinor, long correctionsMinor) {
+
+    /**
+     * Reads the totals stored in a snapshot.
+     *
+     * @param snapshot The snapshot.
+     * @return The totals of the snapshot.
+     */
+    public static CashTotals of(CashSnapshot snapshot) {
+        return new CashTotals(snapshot.getLastMovementId(), snapshot.getMovements(), snapshot.getSalesMinor(),
+                snapshot.getCashInMinor(), snapshot.getCashOutMinor(), snapshot.getCorrectionsMinor());
+    }
+
+    /**
+     * Adds the movements of one type.
+     *
+     * @param total The sum of the movements.
+     * @return The totals including the movements.
+     */
+    public CashTotals plus(CashMovementTotal total) {
+        long amount = total.amountMinor();
+        CashMovementType type = total.type();
+        return new CashTotals(Math.max(lastMovementId, total.lastMovementId()), movements + total.movements(),
+                salesMinor + (type == CashMovementType.SALE ? amount : 0),
+                cashInMinor + (type == CashMovementType.CASH_IN ? amount : 0),
+                cashOutMinor + (type == CashMovementType.CASH_OUT ? amount : 0),
+                correctionsMinor + (type == CashMovementType.CORRECTION ? amount : 0));
+    }
+
+    /**
+     * Subtracts earlier totals, giving the movements made in between.
+     *
+     * @param earlier The earlier totals of the same ledger.
+     * @return The totals of the movements made after the earlier totals.
+     */
+    public CashTotals minus(CashTotals earlier) {
+        return new CashTotals(lastMovementId, movements - earlier.movements, salesMinor - earlier.salesMinor,
+                cashInMinor - earlier.cashInMinor, cashOutMinor - earlier.cashOutMinor,
+                correctionsMinor - earlier.correctionsMinor);
+    }
+
+    /**
+     * Gets the cash in the drawer.
+     *
+     * @return The balance in cents.
+     */
+    public long balanceMinor() {
+        return salesMinor + cashInMinor + cashOutMinor + correctionsMinor;
+    }
+}
@@ -0,0 +1,12 @@
+package com.sparks.of.fabrication.oop2.utils;
+
+/**
+ * Snapshot of the item data a checkout lane needs to display a scan.
+ *
+ * @param id       The id of the item, which is also its barcode.
+ * @param name     The name of the item.
+ * @param price    The selling price of the item.
+ * @param category The name of the category of the item.
+ */
+public record CatalogItem(Long id, String name, Double price, String category) {
+}
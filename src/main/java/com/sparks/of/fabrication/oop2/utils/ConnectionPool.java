@@ -0,0 +1,80 @@
+package com.sparks.of.fabrication.oop2.utils;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import javax.sql.DataSource;
+
+/**
+ * Pooled JDBC connection provider for the jpaOOP persistence unit, configured from the environment settings.
+ */
+public class ConnectionPool {
+
+    private final HikariDataSource dataSource;
+
+    /**
+     * Snapshot of the connection pool usage.
+     *
+     * @param active  The number of connections currently in use.
+     * @param idle    The number of connections waiting in the pool.
+     * @param waiting The number of threads waiting for a connection.
+     * @param total   The total number of connections in the pool.
+     */
+    public record Stats(int active, int idle, int waiting, int total) {
+    }
+
+    /**
+     * Creates the connection pool using the database and pool settings from the given environment.
+     *
+     * @param env The environment settings containing database connection and pool details.
+     */
+    public ConnectionPool(Env env) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("jpaOOP-pool");
+        config.setDriverClassName("org.postgresql.Driver");
+        config.setJdbcUrl(env.getDbUrl());
+        config.setUsername(env.getDbUser());
+        config.setPassword(env.getDbPassword());
+        config.setMinimumIdle(env.getPoolMinIdle());
+        config.setMaximumPoolSize(env.getPoolMaxSize());
+        config.setConnectionTimeout(env.getPoolConnectionTimeoutMs());
+        config.setIdleTimeout(env.getPoolIdleTimeoutMs());
+        config.setLeakDetectionThreshold(env.getPoolLeakDetectionMs());
+        config.setAutoCommit(false);
+
+        dataSource = new HikariDataSource(config);
+    }
+
+    /**
+     * Gets the pooled data source handed to Hibernate.
+     *
+     * @return The pooled data source.
+     */
+    public DataSource getDataSource() {
+        return dataSource;
+    }
+
+    /**
+     * Reads the live connection counts of the pool.
+     *
+     * @return The current pool statistics.
+     */
+    public Stats getStats() {
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        if (pool == null) {
+            return new Stats(0, 0, 0, 0);
+        }
+        return new Stats(pool.getActiveConnections(), pool.getIdleConnections(),
+                pool.getThreadsAwaitingConnection(), pool.getTotalConnections());
+    }
+
+    /**
+     * Closes all connections of the pool.
+     */
+    public void close() {
+        if (!dataSource.isClosed()) {
+            dataSource.close();
+        }
+    }
+}
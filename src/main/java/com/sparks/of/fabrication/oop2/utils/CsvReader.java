@@ -0,0 +1,266 @@
+package com.sparks.of.fabrication.oop2.utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads a CSV file record by record, with memory bounded by the longest record rather than the file.
+ * <p>
+ * Fields are separated by commas; a field in double quotes may hold commas, line breaks and doubled quotes.
+ * Records end at LF or CRLF and blank lines are skipped. A byte order mark at the start of the stream, which
+ * spreadsheet programs write in front of UTF-8 files, is skipped too, so it does not become part of the first
+ * field. The reader keeps one record at a time in buffers it
+ * reuses for every record. A record longer than the given maximum is consumed but not kept, and is reported by
+ * {@link #isTooLong()}, so a broken file, such as one with an unclosed quote, cannot exhaust memory.
+ * Not thread-safe.
+ */
+public class CsvReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final char BYTE_ORDER_MARK = '\uFEFF';
+
+    private final Reader reader;
+    private final int maxRecordLength;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private long charsRead;
+
+    private final List<String> fields = new ArrayList<>();
+    private final StringBuilder field = new StringBuilder();
+    private final StringBuilder raw = new StringBuilder();
+    private boolean tooLong;
+    private long line;
+    private long recordLine;
+
+    /**
+     * Creates a reader over a character stream.
+     *
+     * @param reader The stream to read, closed with this reader.
+     * @param maxRecordLength The maximum number of characters of a record that is kept.
+     */
+    public CsvReader(Reader reader, int maxRecordLength) {
+        this.reader = reader;
+        this.maxRecordLength = maxRecordLength;
+    }
+
+    /**
+     * Reads the next record.
+     *
+     * @return True if a record was read, false at the end of the stream.
+     * @throws IOException If the stream cannot be read.
+     */
+    public boolean next() throws IOException {
+        while (true) {
+            fields.clear();
+            field.setLength(0);
+            raw.setLength(0);
+            tooLong = false;
+            recordLine = ++line;
+
+            int c = read();
+            if (c == BYTE_ORDER_MARK && charsRead == 1) {
+                c = read();
+            }
+            if (c < 0) {
+                return false;
+            }
+            if (c == '\n' || c == '\r' && skipLineFeed()) {
+                continue;
+            }
+            readRecord(c);
+            return true;
+        }
+    }
+
+    /**
+     * Gets the number of fields of the current record.
+     *
+     * @return The number of fields.
+     */
+    public int size() {
+        return fields.size();
+    }
+
+    /**
+     * Gets a field of the current record, without its quotes.
+     *
+     * @param index The index of the field.
+     * @return The field, or an empty string if the record has fewer fields.
+     */
+    public String get(int index) {
+        return index < fields.size() ? fields.get(index) : "";
+    }
+
+    /**
+     * Gets the current record as it appeared in the file, without its line break.
+     *
+     * @return The text of the record, cut at the maximum record length.
+     */
+    public CharSequence raw() {
+        return raw;
+    }
+
+    /**
+     * Checks whether the current record was longer than the maximum record length. Its fields are then incomplete.
+     *
+     * @return True if the record was too long.
+     */
+    public boolean isTooLong() {
+        return tooLong;
+    }
+
+    /**
+     * Gets the line on which the current record starts.
+     *
+     * @return The line number, counting from one.
+     */
+    public long lineNumber() {
+        return recordLine;
+    }
+
+    /**
+     * Gets how far the stream has been read.
+     *
+     * @return The number of characters read so far.
+     */
+    public long charsRead() {
+        return charsRead;
+    }
+
+    /**
+     * Closes the underlying stream.
+     *
+     * @throws IOException If the stream cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * Reads the rest of a record.
+     *
+     * @param first The first character of the record.
+     * @throws IOException If the stream cannot be read.
+     */
+    private void readRecord(int first) throws IOException {
+        boolean quoted = false;
+        int c = first;
+        while (c >= 0) {
+            if (quoted) {
+                if (c == '"') {
+                    int next = peek();
+                    if (next == '"') {
+                        keep(read());
+                    } else {
+                        quoted = false;
+                    }
+                    raw(c);
+                } else {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    keep(c);
+                }
+            } else if (c == ',') {
+                raw(c);
+                endField();
+            } else if (c == '"' && field.isEmpty()) {
+                raw(c);
+                quoted = true;
+            } else if (c == '\n' || c == '\r' && skipLineFeed()) {
+                break;
+            } else {
+                keep(c);
+            }
+            c = read();
+        }
+        endField();
+    }
+
+    /**
+     * Adds a character to the current field and to the raw record.
+     *
+     * @param c The character.
+     */
+    private void keep(int c) {
+        raw(c);
+        if (!tooLong) {
+            field.append((char) c);
+        }
+    }
+
+    /**
+     * Adds a character to the raw record, marking the record as too long once it passes the maximum length.
+     *
+     * @param c The character.
+     */
+    private void raw(int c) {
+        if (raw.length() < maxRecordLength) {
+            raw.append((char) c);
+        } else {
+            tooLong = true;
+            field.setLength(0);
+        }
+    }
+
+    /**
+     * Ends the current field.
+     */
+    private void endField() {
+        if (!tooLong) {
+            fields.add(field.toString());
+        }
+        field.setLength(0);
+    }
+
+    /**
+     * Consumes the line feed following a carriage return, if there is one.
+     *
+     * @return Always true, so it can end a record condition.
+     * @throws IOException If the stream cannot be read.
+     */
+    private boolean skipLineFeed() throws IOException {
+        if (peek() == '\n') {
+            read();
+        }
+        return true;
+    }
+
+    /**
+     * Reads the next character.
+     *
+     * @return The character, or -1 at the end of the stream.
+     * @throws IOException If the stream cannot be read.
+     */
+    private int read() throws IOException {
+        int c = peek();
+        if (c >= 0) {
+            position++;
+            charsRead++;
+        }
+        return c;
+    }
+
+    /**
+     * Looks at the next character without consuming it.
+     *
+     * @return The character, or -1 at the end of the stream.
+     * @throws IOException If the stream cannot be read.
+     */
+    private int peek() throws IOException {
+        if (position == limit) {
+            limit = reader.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position];
+    }
+}
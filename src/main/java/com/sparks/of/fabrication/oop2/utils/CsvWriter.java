@@ -0,0 +1,99 @@
+package com.sparks.of.fabrication.oop2.utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes CSV records in the format read by {@link CsvReader}: fields separated by commas and quoted
+ * only when they hold a comma, a quote or a line break. Records end with LF. Null values are written as empty fields.
+ */
+public class CsvWriter implements Closeable {
+
+    private final Writer writer;
+
+    /**
+     * Creates a writer over a character stream.
+     *
+     * @param writer The stream to write to, closed with this writer. Pass a buffered stream.
+     */
+    public CsvWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    /**
+     * Writes one record.
+     *
+     * @param values The fields of the record.
+     * @throws IOException If the stream cannot be written.
+     */
+    public void writeRow(Object... values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writeField(values[i]);
+        }
+        writer.write('\n');
+    }
+
+    /**
+     * Writes a record read from another CSV file unchanged, followed by further fields.
+     *
+     * @param raw The record as it appeared in its file, see {@link CsvReader#raw()}.
+     * @param values The fields to append.
+     * @throws IOException If the stream cannot be written.
+     */
+    public void writeRaw(CharSequence raw, Object... values) throws IOException {
+        writer.append(raw);
+        for (Object value : values) {
+            writer.write(',');
+            writeField(value);
+        }
+        writer.write('\n');
+    }
+
+    /**
+     * Writes buffered records to the stream.
+     *
+     * @throws IOException If the stream cannot be written.
+     */
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    /**
+     * Closes the underlying stream.
+     *
+     * @throws IOException If the stream cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    /**
+     * Writes one field, quoting it when needed.
+     *
+     * @param value The value of the field.
+     * @throws IOException If the stream cannot be written.
+     */
+    private void writeField(Object value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        String text = value.toString();
+        boolean quote = false;
+        for (int i = 0; i < text.length() && !quote; i++) {
+            char c = text.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            writer.write(text);
+            return;
+        }
+        writer.write('"');
+        writer.write(text.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -6,44 +6,65 @@ import jakarta.persistence.Persistence;
 import jakarta.persistence.TypedQuery;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.hibernate.Session;
 import org.jetbrains.annotations.NotNull;
-import org.springframework.cglib.core.Local;
 
 import java.lang.reflect.Field;
-import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 /**
  * Wrapper class for managing JPA entity transactions and queries.
+ * <p>
+ * The wrapper never shares an EntityManager between threads. Every operation opens a short-lived
+ * EntityManager from the factory and closes it when done, unless the calling thread is inside
+ * {@link #inUnitOfWork(Supplier)}, in which case all operations on that thread reuse the same one.
+ * Writes commit on their own unless they run inside {@link #inTransaction(Supplier)}.
  */
 public class EntityManagerWrapper {
 
     private static final Logger log = LogManager.getLogger(EntityManagerWrapper.class);
+    private static final int BATCH_SIZE = 50;
     EntityManagerFactory emf;
-    EntityManager em;
+    ConnectionPool connectionPool;
+    QueryRegistry queryRegistry;
+    CacheStatistics cacheStatistics;
+    private final ThreadLocal<EntityManager> boundEntityManager = new ThreadLocal<>();
+    private final ThreadLocal<List<Runnable>> afterCommitActions = ThreadLocal.withInitial(ArrayList::new);
+    private final ThreadLocal<Exception> transactionFailure = new ThreadLocal<>();
 
     /**
-     * Constructor that initializes the EntityManager and connects to the database using the provided environment settings.
+     * Constructor that initializes the EntityManagerFactory and connects to the database using the provided environment settings.
      *
-     * @param env The environment settings containing database connection details.
+     * @param env The environment settings containing database connection and pool details.
      */
     public EntityManagerWrapper(Env env) {
         try {
-            Map<String, String> properties = getProperties(env);
+            connectionPool = new ConnectionPool(env);
+            Map<String, Object> properties = getProperties(connectionPool);
 
             emf = Persistence.createEntityManagerFactory("jpaOOP", properties);
 
             if (emf == null) {
                 log.error("ENTITY MANAGET UNINITIALIZED");
-            }
-            em = emf.createEntityManager();
-
-            if (em != null) {
-                log.info("Successfully created EntityManager and connected to the database.");
+            } else {
+                log.info("Successfully created EntityManagerFactory and connected to the database.");
+                queryRegistry = new QueryRegistry(emf);
+                cacheStatistics = new CacheStatistics(emf);
             }
 
         } catch (Exception e) {
@@ -52,43 +73,298 @@ public class EntityManagerWrapper {
     }
 
     /**
-     * Gets the properties for the database connection from the given environment settings.
+     * Gets the properties for the database connection backed by the given connection pool.
      *
-     * @param env The environment settings containing database connection details.
+     * @param connectionPool The pool providing JDBC connections.
      * @return A map containing the properties required for database connection.
      */
     @NotNull
-    private static Map<String, String> getProperties(Env env) {
-        Map<String, String> properties = new HashMap<>();
+    private static Map<String, Object> getProperties(ConnectionPool connectionPool) {
+        Map<String, Object> properties = new HashMap<>();
 
-        properties.put("jakarta.persistence.jdbc.url", env.getDbUrl());
-        properties.put("jakarta.persistence.jdbc.user", env.getDbUser());
-        properties.put("jakarta.persistence.jdbc.password", env.getDbPassword());
-        properties.put("jakarta.persistence.jdbc.driver", "org.postgresql.Driver");
+        properties.put("hibernate.connection.datasource", connectionPool.getDataSource());
+        properties.put("hibernate.connection.provider_disables_autocommit", "true");
         properties.put("hibernate.hbm2ddl.auto", "update"); // Or "create", "create-drop"
+        properties.put("hibernate.jdbc.batch_size", String.valueOf(BATCH_SIZE));
+        properties.put("hibernate.order_inserts", "true");
+        properties.put("hibernate.order_updates", "true");
+        properties.put("hibernate.jdbc.batch_versioned_data", "true");
+        // Reference entities marked @Cacheable are kept in the bounded caches configured in ehcache.xml
+        properties.put("jakarta.persistence.sharedCache.mode", "ENABLE_SELECTIVE");
+        properties.put("hibernate.cache.use_second_level_cache", "true");
+        properties.put("hibernate.cache.use_query_cache", "true");
+        properties.put("hibernate.cache.region.factory_class", "jcache");
+        properties.put("hibernate.javax.cache.provider", "org.ehcache.jsr107.EhcacheCachingProvider");
+        properties.put("hibernate.javax.cache.uri", "ehcache.xml");
+        properties.put("hibernate.javax.cache.missing_cache_strategy", "fail");
+        properties.put("hibernate.generate_statistics", "true");
 
         return properties;
     }
 
+    /**
+     * Reads the live connection counts of the connection pool.
+     *
+     * @return The current pool statistics.
+     */
+    public ConnectionPool.Stats getPoolStats() {
+        return connectionPool.getStats();
+    }
+
+    /**
+     * Reads the hit, miss and eviction counts of the second-level and query caches.
+     *
+     * @return The statistics of every cache region.
+     */
+    public List<CacheStatistics.RegionStats> getCacheStats() {
+        return cacheStatistics.getRegionStats();
+    }
+
+    /**
+     * Runs the given work as one unit of work. Every wrapper call made by the current thread while the
+     * work runs shares a single EntityManager, which is closed once the outermost unit of work finishes.
+     *
+     * @param work The work to run.
+     * @param <R> The type of the result.
+     * @return The result of the work.
+     */
+    public <R> R inUnitOfWork(Supplier<R> work) {
+        if (boundEntityManager.get() != null) {
+            return work.get();
+        }
+
+        EntityManager em = emf.createEntityManager();
+        boundEntityManager.set(em);
+        try {
+            return work.get();
+        } finally {
+            boundEntityManager.remove();
+            em.close();
+        }
+    }
+
+    /**
+     * Runs the given work as one database transaction with a single flush at commit. Every wrapper call
+     * made by the current thread while the work runs joins that transaction instead of committing on its own.
+     * A nested call joins the outer transaction; a failure anywhere marks it rollback-only so nothing is committed.
+     *
+     * @param work The work to run.
+     * @param <R> The type of the result.
+     * @return A Pair containing a success flag and the result of the work.
+     */
+    public <R> Pair<Boolean, R> inTransaction(Supplier<R> work) {
+        return inUnitOfWork(() -> {
+            EntityManager em = boundEntityManager.get();
+            boolean joined = em.getTransaction().isActive();
+            try {
+                if (!joined) {
+                    transactionFailure.remove();
+                    beginTransaction(em);
+                }
+                R result = work.get();
+                if (joined) {
+                    return new Pair<>(!em.getTransaction().getRollbackOnly(), result);
+                }
+                if (em.getTransaction().getRollbackOnly()) {
+                    log.warn("Transaction marked rollback-only, rolling back");
+                    rollbackTransaction(em);
+                    return new Pair<>(false, null);
+                }
+                commitTransaction(em);
+                return new Pair<>(true, result);
+            } catch (Exception e) {
+                log.error("Error in transaction: {}", e.getMessage(), e);
+                recordFailure(e);
+                if (joined) {
+                    em.getTransaction().setRollbackOnly();
+                } else {
+                    rollbackTransaction(em);
+                }
+                return new Pair<>(false, null);
+            }
+        });
+    }
+
+    /**
+     * Runs the given action once the transaction of the current thread has committed, or right away if there
+     * is none. The action is dropped if the transaction rolls back, so it only ever sees committed changes.
+     *
+     * @param action The action to run.
+     */
+    public void afterCommit(Runnable action) {
+        EntityManager em = boundEntityManager.get();
+        if (em != null && em.getTransaction().isActive()) {
+            afterCommitActions.get().add(action);
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Runs the given work as one database transaction, see {@link #inTransaction(Supplier)}.
+     *
+     * @param work The work to run.
+     * @return A boolean indicating whether the transaction was committed.
+     */
+    public boolean inTransaction(Runnable work) {
+        return inTransaction(() -> {
+            work.run();
+            return true;
+        }).x();
+    }
+
+    /**
+     * Runs the given write in its own transaction, or joins the transaction already active on the
+     * EntityManager. A failed write rolls back its own transaction or marks the joined one rollback-only.
+     *
+     * @param work The write to run.
+     * @return A boolean indicating whether the write was successful.
+     */
+    private boolean executeWrite(Consumer<EntityManager> work) {
+        return withEntityManager(em -> {
+            boolean joined = em.getTransaction().isActive();
+            try {
+                if (!joined) {
+                    beginTransaction(em);
+                }
+                work.accept(em);
+                if (!joined) {
+                    commitTransaction(em);
+                }
+                return true;
+            } catch (Exception e) {
+                log.error(e.getMessage(), e);
+                recordFailure(e);
+                if (joined) {
+                    em.getTransaction().setRollbackOnly();
+                } else {
+                    rollbackTransaction(em);
+                }
+                return false;
+            }
+        });
+    }
+
+    /**
+     * Runs the given work with the EntityManager bound to the current thread, or with a new short-lived
+     * EntityManager that is closed afterwards when no unit of work is active.
+     *
+     * @param work The work to run.
+     * @param <R> The type of the result.
+     * @return The result of the work.
+     */
+    private <R> R withEntityManager(Function<EntityManager, R> work) {
+        EntityManager bound = boundEntityManager.get();
+        if (bound != null) {
+            try {
+                return work.apply(bound);
+            } catch (RuntimeException e) {
+                recordFailure(e);
+                throw e;
+            }
+        }
+
+        EntityManager em = emf.createEntityManager();
+        try {
+            return work.apply(em);
+        } finally {
+            em.close();
+        }
+    }
+
+    /**
+     * Remembers the first error of the transaction of the current thread, so the caller of
+     * {@link #inTransaction(Supplier)} can tell why it was rolled back.
+     *
+     * @param e The error.
+     */
+    private void recordFailure(Exception e) {
+        if (transactionFailure.get() == null) {
+            transactionFailure.set(e);
+        }
+    }
+
+    /**
+     * Gets the first error of the last transaction of the current thread. The wrapper methods log and swallow
+     * their errors, so this is the only way to learn the cause of a failed {@link #inTransaction(Supplier)}.
+     *
+     * @return The error, or null if the last transaction had none.
+     */
+    public Exception getTransactionFailure() {
+        return transactionFailure.get();
+    }
+
+    /**
+     * Checks whether an error is transient, such as a lost connection, a pool timeout, a deadlock or a
+     * serialization failure, so the same work may succeed when it is retried later.
+     *
+     * @param error The error, or null.
+     * @return True if the error or one of its causes is transient, false otherwise.
+     */
+    public static boolean isTransient(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLTransientException || cause instanceof SQLRecoverableException
+                    || cause instanceof SQLNonTransientConnectionException) {
+                return true;
+            }
+            if (cause instanceof SQLException sqlException && sqlException.getSQLState() != null) {
+                String state = sqlException.getSQLState();
+                // Connection exception, transaction rollback, insufficient resources, operator intervention
+                if (state.startsWith("08") || state.startsWith("40") || state.startsWith("53") || state.startsWith("57P")) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
     /**
      * Begins a new transaction in the EntityManager.
+     *
+     * @param em The EntityManager owning the transaction.
      */
-    private void beginTransaction() {
+    private void beginTransaction(EntityManager em) {
         em.getTransaction().begin();
     }
 
     /**
      * Commits the current transaction in the EntityManager.
+     *
+     * @param em The EntityManager owning the transaction.
      */
-    private void commitTransaction() {
+    private void commitTransaction(EntityManager em) {
         em.getTransaction().commit();
+        List<Runnable> actions = afterCommitActions.get();
+        afterCommitActions.remove();
+        for (Runnable action : actions) {
+            try {
+                action.run();
+            } catch (Exception e) {
+                log.error("Error running after-commit action: {}", e.getMessage(), e);
+            }
+        }
     }
 
     /**
-     * Rolls back the current transaction in the EntityManager.
+     * Rolls back the current transaction in the EntityManager, if one is active.
+     *
+     * @param em The EntityManager owning the transaction.
+     */
+    private void rollbackTransaction(EntityManager em) {
+        afterCommitActions.remove();
+        if (em.getTransaction().isActive()) {
+            em.getTransaction().rollback();
+        }
+    }
+
+    /**
+     * Checks whether the entity already has an identifier, meaning it was loaded or persisted before.
+     *
+     * @param entity The entity to check.
+     * @return True if the entity has an identifier.
      */
-    private void rollbackTransaction() {
-        em.getTransaction().rollback();
+    private boolean hasIdentifier(Object entity) {
+        return emf.getPersistenceUnitUtil().getIdentifier(entity) != null;
     }
 
     /**
@@ -103,11 +379,11 @@ public class EntityManagerWrapper {
      */
     public <T, Y> Pair<Boolean, T> findEntityByVal(Class<T> tClass, Field field, Y value) {
         try {
-            String jpql = "SELECT e FROM " + tClass.getSimpleName() + " e WHERE e." + field.getName() + " = :value";
-            TypedQuery<T> query = this.em.createQuery(jpql, tClass);
-            query.setParameter("value", value);
-
-            T entity = query.getSingleResult();
+            T entity = withEntityManager(em -> {
+                TypedQuery<T> query = queryRegistry.createQuery(em, tClass, field.getName(), QueryOperator.EQUALS);
+                query.setParameter("value", value);
+                return query.getSingleResult();
+            });
 
             return new Pair<>(true, entity);
         } catch (Exception e) {
@@ -128,11 +404,11 @@ public class EntityManagerWrapper {
      */
     public <T, Y> Pair<Boolean, List<T>> findEntityByValAll(Class<T> tClass, Field field, Y value) {
         try {
-            String jpql = "SELECT e FROM " + tClass.getSimpleName() + " e WHERE e." + field.getName() + " = :value";
-            TypedQuery<T> query = this.em.createQuery(jpql, tClass);
-            query.setParameter("value", value);
-
-            List<T> entity = query.getResultList();
+            List<T> entity = withEntityManager(em -> {
+                TypedQuery<T> query = queryRegistry.createQuery(em, tClass, field.getName(), QueryOperator.EQUALS);
+                query.setParameter("value", value);
+                return query.getResultList();
+            });
 
             return new Pair<>(true, entity);
         } catch (Exception e) {
@@ -141,6 +417,34 @@ public class EntityManagerWrapper {
         }
     }
 
+    /**
+     * Finds all entities of a given class whose field equals any of the given values, in a single query.
+     *
+     * @param tClass The class of the entities to search for.
+     * @param field The field in the entity to match against.
+     * @param values The values to search for.
+     * @param <T> The type of the entity.
+     * @param <Y> The type of the field values.
+     * @return A Pair containing a success flag and the list of found entities.
+     */
+    public <T, Y> Pair<Boolean, List<T>> findEntitiesByValIn(Class<T> tClass, Field field, Collection<Y> values) {
+        if (values.isEmpty()) {
+            return new Pair<>(true, new ArrayList<>());
+        }
+        try {
+            List<T> entities = withEntityManager(em -> {
+                TypedQuery<T> query = queryRegistry.createQuery(em, tClass, field.getName(), QueryOperator.IN);
+                query.setParameter("value", values);
+                return query.getResultList();
+            });
+
+            return new Pair<>(true, entities);
+        } catch (Exception e) {
+            log.error(e.getMessage(), e);
+            return new Pair<>(false, new ArrayList<>());
+        }
+    }
+
     /**
      * Finds all entities of a given class that match a field value using the "LIKE" operator.
      *
@@ -153,12 +457,11 @@ public class EntityManagerWrapper {
      */
     public <T, Y> Pair<Boolean, List<T>> findEntityByValAllLikeR(Class<T> tClass, Field field, Y value) {
         try {
-            String jpql = "SELECT e FROM " + tClass.getSimpleName() + " e WHERE e." + field.getName() + " LIKE :value";
-            TypedQuery<T> query = this.em.createQuery(jpql, tClass);
-
-            query.setParameter("value", value + "%");
-
-            List<T> entities = query.getResultList();
+            List<T> entities = withEntityManager(em -> {
+                TypedQuery<T> query = queryRegistry.createQuery(em, tClass, field.getName(), QueryOperator.LIKE);
+                query.setParameter("value", value + "%");
+                return query.getResultList();
+            });
 
             return new Pair<>(true, entities);
         } catch (Exception e) {
@@ -179,12 +482,12 @@ public class EntityManagerWrapper {
      */
     public <T> Pair<Boolean, List<T>> findEntitiesBetweenDates(Class<T> tClass, Field dateField, LocalDate startDate, LocalDate endDate) {
         try {
-            String jpql = "SELECT e FROM " + tClass.getSimpleName() + " e WHERE e." + dateField.getName() + " BETWEEN :startDate AND :endDate";
-            TypedQuery<T> query = this.em.createQuery(jpql, tClass);
-            query.setParameter("startDate", startDate);
-            query.setParameter("endDate", endDate);
-
-            List<T> entities = query.getResultList();
+            List<T> entities = withEntityManager(em -> {
+                TypedQuery<T> query = queryRegistry.createQuery(em, tClass, dateField.getName(), QueryOperator.BETWEEN);
+                query.setParameter("startDate", startDate);
+                query.setParameter("endDate", endDate);
+                return query.getResultList();
+            });
 
             return new Pair<>(true, entities);
         } catch (Exception e) {
@@ -193,6 +496,148 @@ public class EntityManagerWrapper {
         }
     }
 
+    /**
+     * Streams entities of a given class between two dates without holding them all in memory,
+     * see {@link #streamQuery(Class, Function, int, Consumer)}.
+     *
+     * @param tClass The class of the entities to stream.
+     * @param dateField The date field to match against.
+     * @param startDate The start date for the range.
+     * @param endDate The end date for the range.
+     * @param fetchSize The number of rows fetched per database round trip.
+     * @param action The action applied to every entity.
+     * @param <T> The type of the entity.
+     * @return A Pair containing a success flag and the number of processed entities.
+     */
+    public <T> Pair<Boolean, Long> streamEntitiesBetweenDates(Class<T> tClass, Field dateField, LocalDate startDate, LocalDate endDate,
+                                                              int fetchSize, Consumer<T> action) {
+        return streamQuery(tClass, em -> queryRegistry.createQuery(em, tClass, dateField.getName(), QueryOperator.BETWEEN)
+                .setParameter("startDate", startDate)
+                .setParameter("endDate", endDate), fetchSize, action);
+    }
+
+    /**
+     * Streams all entities of a given class without holding them all in memory,
+     * see {@link #streamQuery(Class, Function, int, Consumer)}.
+     *
+     * @param tClass The class of the entities to stream.
+     * @param fetchSize The number of rows fetched per database round trip.
+     * @param action The action applied to every entity.
+     * @param <T> The type of the entity.
+     * @return A Pair containing a success flag and the number of processed entities.
+     */
+    public <T> Pair<Boolean, Long> streamAllEntities(Class<T> tClass, int fetchSize, Consumer<T> action) {
+        return streamQuery(tClass, em -> em.createQuery(queryRegistry.selectFrom(tClass), tClass), fetchSize, action);
+    }
+
+    /**
+     * Runs a projection query that selects only the given columns into lightweight rows instead of
+     * managed entities, e.g. {@code SELECT new com.example.Row(e.id, c.name) FROM Entity e JOIN e.category c}.
+     *
+     * @param rowClass The class of the rows built by the constructor expression of the query.
+     * @param jpql The projection query.
+     * @param parameters The named parameters of the query.
+     * @param limit The maximum number of rows to return, or zero for all rows.
+     * @param <R> The type of the rows.
+     * @return A Pair containing a success flag and the list of rows.
+     */
+    public <R> Pair<Boolean, List<R>> findProjection(Class<R> rowClass, String jpql, Map<String, ?> parameters, int limit) {
+        try {
+            List<R> rows = withEntityManager(em -> {
+                TypedQuery<R> query = em.createQuery(jpql, rowClass);
+                parameters.forEach((name, value) -> query.setParameter(name, value));
+                if (limit > 0) {
+                    query.setMaxResults(limit);
+                }
+                return query.getResultList();
+            });
+            return new Pair<>(true, rows);
+        } catch (Exception e) {
+            log.error("Error fetching projection {}: {}", rowClass.getSimpleName(), e.getMessage(), e);
+            return new Pair<>(false, new ArrayList<>());
+        }
+    }
+
+    /**
+     * Streams the rows of a projection query without holding them all in memory,
+     * see {@link #findProjection(Class, String, Map, int)} and {@link #streamQuery(Class, Function, int, Consumer)}.
+     *
+     * @param rowClass The class of the rows built by the constructor expression of the query.
+     * @param jpql The projection query.
+     * @param parameters The named parameters of the query.
+     * @param fetchSize The number of rows fetched per database round trip.
+     * @param action The action applied to every row.
+     * @param <R> The type of the rows.
+     * @return A Pair containing a success flag and the number of processed rows.
+     */
+    public <R> Pair<Boolean, Long> streamProjection(Class<R> rowClass, String jpql, Map<String, ?> parameters,
+                                                    int fetchSize, Consumer<R> action) {
+        return streamQuery(rowClass, em -> {
+            TypedQuery<R> query = em.createQuery(jpql, rowClass);
+            parameters.forEach((name, value) -> query.setParameter(name, value));
+            return query;
+        }, fetchSize, action);
+    }
+
+    /**
+     * Runs a read-only query over a database cursor and hands every entity to the given action.
+     * Rows are fetched in chunks of the given fetch size. When no EntityManager is bound to the thread,
+     * the one created for this call is cleared after every chunk, so memory stays flat however many rows
+     * match, and entities passed to the action are detached once the next chunk is read and must not be
+     * modified. A bound EntityManager belongs to the caller and is never cleared.
+     *
+     * @param tClass The class of the entities to stream.
+     * @param queryFactory Function creating the query, with its parameters set, on the given EntityManager.
+     * @param fetchSize The number of rows fetched per database round trip.
+     * @param action The action applied to every entity.
+     * @param <T> The type of the entity.
+     * @return A Pair containing a success flag and the number of processed entities.
+     * @throws IllegalArgumentException if the fetch size is less than one.
+     */
+    private <T> Pair<Boolean, Long> streamQuery(Class<T> tClass, Function<EntityManager, TypedQuery<T>> queryFactory,
+                                                int fetchSize, Consumer<T> action) {
+        if (fetchSize < 1) {
+            throw new IllegalArgumentException("Fetch size must be at least 1, was " + fetchSize);
+        }
+        boolean ownEntityManager = boundEntityManager.get() == null;
+        return withEntityManager(em -> {
+            // PostgreSQL only honours the fetch size inside a transaction
+            boolean joined = em.getTransaction().isActive();
+            try {
+                if (!joined) {
+                    transactionFailure.remove();
+                    beginTransaction(em);
+                }
+                TypedQuery<T> query = queryFactory.apply(em);
+                query.setHint("org.hibernate.fetchSize", fetchSize);
+                query.setHint("org.hibernate.readOnly", true);
+                query.setHint("org.hibernate.cacheable", false);
+
+                long count = 0;
+                try (Stream<T> stream = query.getResultStream()) {
+                    Iterator<T> iterator = stream.iterator();
+                    while (iterator.hasNext()) {
+                        action.accept(iterator.next());
+                        if (++count % fetchSize == 0 && ownEntityManager) {
+                            em.clear();
+                        }
+                    }
+                }
+                if (!joined) {
+                    rollbackTransaction(em);
+                }
+                return new Pair<>(true, count);
+            } catch (Exception e) {
+                log.error("Error streaming entities for {}: {}", tClass.getSimpleName(), e.getMessage(), e);
+                recordFailure(e);
+                if (!joined) {
+                    rollbackTransaction(em);
+                }
+                return new Pair<>(false, 0L);
+            }
+        });
+    }
+
     /**
      * Finds all entities of a given class.
      *
@@ -202,15 +647,130 @@ public class EntityManagerWrapper {
      */
     public <T> List<T> findAllEntities(Class<T> tClass) {
         try {
-            String jpql = "SELECT e FROM " + tClass.getSimpleName() + " e";
-            TypedQuery<T> query = em.createQuery(jpql, tClass);
-            return query.getResultList();
+            String jpql = queryRegistry.selectFrom(tClass);
+            return withEntityManager(em -> QueryRegistry.cacheable(em.createQuery(jpql, tClass), tClass).getResultList());
         } catch (Exception e) {
             log.error("Error fetching all entities for {}: {}", tClass.getSimpleName(), e.getMessage(), e);
             return new ArrayList<>();
         }
     }
 
+    /**
+     * Finds one page of entities ordered ascending by a unique sort field, using keyset pagination.
+     *
+     * @param tClass The class of the entities to search for.
+     * @param sortField The unique field to order and seek by, usually the id.
+     * @param afterKey The sort key of the last entity of the previous page, or null for the first page.
+     * @param limit The maximum number of entities in the page.
+     * @param filters The fields and values the entities must be equal to.
+     * @param <T> The type of the entity.
+     * @return A Pair containing a success flag and the found page.
+     */
+    public <T> Pair<Boolean, Page<T>> findPage(Class<T> tClass, Field sortField, Object afterKey, int limit, Map<Field, ?> filters) {
+        return findPage(tClass, sortField, afterKey, limit, filters, false);
+    }
+
+    /**
+     * Finds one page of entities ordered by a unique sort field, using keyset pagination. The query seeks
+     * past the given key instead of skipping rows, so every page costs the same however deep it is.
+     *
+     * @param tClass The class of the entities to search for.
+     * @param sortField The unique field to order and seek by, usually the id.
+     * @param afterKey The sort key of the last entity of the previous page, or null for the first page.
+     * @param limit The maximum number of entities in the page.
+     * @param filters The fields and values the entities must be equal to.
+     * @param descending Whether to order from the highest key to the lowest.
+     * @param <T> The type of the entity.
+     * @return A Pair containing a success flag and the found page.
+     */
+    public <T> Pair<Boolean, Page<T>> findPage(Class<T> tClass, Field sortField, Object afterKey, int limit,
+                                               Map<Field, ?> filters, boolean descending) {
+        try {
+            StringBuilder jpql = new StringBuilder(queryRegistry.selectFrom(tClass) + " WHERE 1 = 1");
+            List<Object> values = new ArrayList<>();
+
+            for (Map.Entry<Field, ?> filter : filters.entrySet()) {
+                values.add(filter.getValue());
+                jpql.append(" AND e.").append(filter.getKey().getName()).append(" = :p").append(values.size());
+            }
+            if (afterKey != null) {
+                jpql.append(" AND e.").append(sortField.getName()).append(descending ? " < :afterKey" : " > :afterKey");
+            }
+            jpql.append(" ORDER BY e.").append(sortField.getName()).append(descending ? " DESC" : " ASC");
+
+            List<T> entities = withEntityManager(em -> {
+                TypedQuery<T> query = em.createQuery(jpql.toString(), tClass);
+                for (int i = 0; i < values.size(); i++) {
+                    query.setParameter("p" + (i + 1), values.get(i));
+                }
+                if (afterKey != null) {
+                    query.setParameter("afterKey", afterKey);
+                }
+                return query.setMaxResults(limit + 1).getResultList();
+            });
+
+            Object nextKey = null;
+            if (entities.size() > limit) {
+                entities = new ArrayList<>(entities.subList(0, limit));
+                sortField.setAccessible(true);
+                nextKey = sortField.get(entities.getLast());
+            }
+            return new Pair<>(true, new Page<>(entities, nextKey));
+        } catch (Exception e) {
+            log.error("Error fetching page for {}: {}", tClass.getSimpleName(), e.getMessage(), e);
+            return new Pair<>(false, new Page<>(new ArrayList<>(), null));
+        }
+    }
+
+    /**
+     * Counts the entities of a given class.
+     *
+     * @param tClass The class of the entities to count.
+     * @param <T> The type of the entity.
+     * @return A Pair containing a success flag and the number of entities.
+     */
+    public <T> Pair<Boolean, Long> countEntities(Class<T> tClass) {
+        try {
+            Long count = withEntityManager(em ->
+                    em.createQuery("SELECT COUNT(e) FROM " + tClass.getSimpleName() + " e", Long.class).getSingleResult());
+            return new Pair<>(true, count);
+        } catch (Exception e) {
+            log.error("Error counting {}: {}", tClass.getSimpleName(), e.getMessage(), e);
+            return new Pair<>(false, 0L);
+        }
+    }
+
+    /**
+     * Finds the sort key that lies a number of rows past another key, in ascending order. Only the key is read,
+     * so the database walks its index instead of loading the skipped entities. Use it to find where a
+     * {@link #findPage(Class, Field, Object, int, Map)} page starts when jumping to a page far from the known ones.
+     *
+     * @param tClass The class of the entities.
+     * @param sortField The unique field to order by, usually the id.
+     * @param afterKey The key to start counting after, or null to count from the first entity.
+     * @param skip The number of rows to move forward, at least one.
+     * @param <T> The type of the entity.
+     * @return A Pair containing a success flag and the found key, null when there are fewer rows.
+     */
+    public <T> Pair<Boolean, Object> findKeyAfter(Class<T> tClass, Field sortField, Object afterKey, int skip) {
+        try {
+            String key = "e." + sortField.getName();
+            String jpql = "SELECT " + key + " FROM " + tClass.getSimpleName() + " e"
+                    + (afterKey != null ? " WHERE " + key + " > :afterKey" : "") + " ORDER BY " + key + " ASC";
+            List<Object> keys = withEntityManager(em -> {
+                TypedQuery<Object> query = em.createQuery(jpql, Object.class);
+                if (afterKey != null) {
+                    query.setParameter("afterKey", afterKey);
+                }
+                return query.setFirstResult(skip - 1).setMaxResults(1).getResultList();
+            });
+            return new Pair<>(true, keys.isEmpty() ? null : keys.getFirst());
+        } catch (Exception e) {
+            log.error("Error seeking key of {}: {}", tClass.getSimpleName(), e.getMessage(), e);
+            return new Pair<>(false, null);
+        }
+    }
+
     /**
      * Generates a new entity in the database.
      *
@@ -219,17 +779,74 @@ public class EntityManagerWrapper {
      * @return A boolean indicating whether the operation was successful.
      */
     public <T> boolean genEntity(T entity) {
-        try {
-            beginTransaction();
-            em.persist(entity);
-            commitTransaction();
+        boolean success = executeWrite(em -> {
+            if (hasIdentifier(entity)) {
+                em.merge(entity);
+            } else {
+                em.persist(entity);
+            }
+        });
+        if (success) {
             log.info("Persisted entity: {}", entity);
-            return true;
-        } catch (Exception e) {
-            log.error(e.getMessage(), e);
-            rollbackTransaction();
-            return false;
         }
+        return success;
+    }
+
+    /**
+     * Generates or updates many entities in a single transaction. Statements are sent to the database in
+     * JDBC batches and the persistence context is flushed after every batch. Outside an
+     * {@link #inTransaction(Supplier)} block it is also cleared, to keep memory flat.
+     *
+     * @param entities The entities to persist or merge.
+     * @param <T> The type of the entities.
+     * @return A boolean indicating whether the operation was successful.
+     */
+    public <T> boolean genEntities(Collection<T> entities) {
+        boolean clearAfterBatch = boundEntityManager.get() == null;
+        boolean success = executeWrite(em -> {
+            int count = 0;
+            for (T entity : entities) {
+                if (hasIdentifier(entity)) {
+                    em.merge(entity);
+                } else {
+                    em.persist(entity);
+                }
+                if (++count % BATCH_SIZE == 0) {
+                    em.flush();
+                    if (clearAfterBatch) {
+                        em.clear();
+                    }
+                }
+            }
+        });
+        if (success) {
+            log.info("Persisted {} entities", entities.size());
+        }
+        return success;
+    }
+
+    /**
+     * Runs one SQL statement for every row of parameters as a single JDBC batch, in the order given.
+     * Joins the current transaction when called inside {@link #inTransaction(Supplier)}.
+     *
+     * @param sql The SQL statement with positional parameters.
+     * @param rows The parameters of every execution, in statement order.
+     * @return A Pair containing a success flag and the number of rows changed by every execution.
+     */
+    public Pair<Boolean, int[]> executeBatchUpdate(String sql, List<Object[]> rows) {
+        int[][] updateCounts = {new int[0]};
+        boolean success = executeWrite(em -> updateCounts[0] = em.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                for (Object[] row : rows) {
+                    for (int i = 0; i < row.length; i++) {
+                        statement.setObject(i + 1, row[i]);
+                    }
+                    statement.addBatch();
+                }
+                return statement.executeBatch();
+            }
+        }));
+        return new Pair<>(success, updateCounts[0]);
     }
 
     /**
@@ -242,41 +859,51 @@ public class EntityManagerWrapper {
      */
     public <T> Pair<Boolean, T> findEntityById(Class<T> tClass, int id) {
         try {
-            T entity = em.find(tClass, id);
+            T entity = withEntityManager(em -> em.find(tClass, id));
 
             log.info("Found entity: {}", entity);
             return new Pair<>(true, entity);
         } catch (Exception e) {
             log.error(e.getMessage(), e);
-            rollbackTransaction();
             return new Pair<>(false, null);
         }
     }
 
     /**
-     * Deletes an entity by its ID.
+     * Finds an entity by its ID, for entities whose ID is a {@code Long}.
      *
      * @param tClass The class of the entity.
      * @param id The ID of the entity.
      * @param <T> The type of the entity.
-     * @return A boolean indicating whether the operation was successful.
+     * @return A Pair containing a success flag and the found entity.
      */
-    public <T> boolean deleteEntityById(Class<T> tClass, int id) {
+    public <T> Pair<Boolean, T> findEntityById(Class<T> tClass, long id) {
         try {
-            T entity = em.find(tClass, id);
-            beginTransaction();
-            em.remove(entity);
-            commitTransaction();
+            T entity = withEntityManager(em -> em.find(tClass, id));
 
-            return true;
+            log.info("Found entity: {}", entity);
+            return new Pair<>(true, entity);
         } catch (Exception e) {
             log.error(e.getMessage(), e);
-            rollbackTransaction();
-
-            return false;
+            return new Pair<>(false, null);
         }
     }
 
+    /**
+     * Deletes an entity by its ID.
+     *
+     * @param tClass The class of the entity.
+     * @param id The ID of the entity.
+     * @param <T> The type of the entity.
+     * @return A boolean indicating whether the operation was successful.
+     */
+    public <T> boolean deleteEntityById(Class<T> tClass, int id) {
+        return executeWrite(em -> {
+            T entity = em.find(tClass, id);
+            em.remove(entity);
+        });
+    }
+
     /**
      * Updates an entity by its fields.
      *
@@ -301,12 +928,11 @@ public class EntityManagerWrapper {
 
             jpql.append(" WHERE ").append("id = ").append(id);
 
-            em.createQuery(jpql.toString(), tClass).executeUpdate();
+            withEntityManager(em -> em.createQuery(jpql.toString(), tClass).executeUpdate());
 
             return false;
         }catch (Exception e) {
             log.error(e.getMessage(), e);
-            rollbackTransaction();
             return false;
         }
     }
@@ -319,17 +945,11 @@ public class EntityManagerWrapper {
      * @return A boolean indicating whether the operation was successful.
      */
     public <T> boolean updateEntity(T entity) {
-        try {
-            beginTransaction();
-            em.merge(entity);
-            commitTransaction();
+        boolean success = executeWrite(em -> em.merge(entity));
+        if (success) {
             log.info("Updated entity: {}", entity);
-            return true;
-        } catch (Exception e) {
-            log.error(e.getMessage(), e);
-            rollbackTransaction();
-            return false;
         }
+        return success;
     }
 
     /**
@@ -345,18 +965,11 @@ public class EntityManagerWrapper {
      */
     public <T, Y> Pair<Boolean, List<T>> findEntitiesWithJoins(Class<T> tClass, Field field, Y value, List<String> joinFields) {
         try {
-            StringBuilder jpql = new StringBuilder("SELECT e FROM " + tClass.getSimpleName() + " e");
-
-            for (String joinField : joinFields) {
-                jpql.append(" JOIN e.").append(joinField);
-            }
-
-            jpql.append(" WHERE e.").append(field.getName()).append(" = :value");
-
-            TypedQuery<T> query = this.em.createQuery(jpql.toString(), tClass);
-            query.setParameter("value", value);
-
-            List<T> resultList = query.getResultList();
+            List<T> resultList = withEntityManager(em -> {
+                TypedQuery<T> query = queryRegistry.createQuery(em, tClass, field.getName(), QueryOperator.EQUALS, joinFields);
+                query.setParameter("value", value);
+                return query.getResultList();
+            });
             return new Pair<>(true, resultList);
         } catch (Exception e) {
             log.error("Error executing query with joins: {}", e.getMessage(), e);
@@ -365,19 +978,22 @@ public class EntityManagerWrapper {
     }
 
     /**
-     * Cleans up the resources used by the EntityManager.
+     * Cleans up the resources used by the EntityManagerFactory.
      *
      * @return A boolean indicating whether the cleanup was successful.
      */
     public boolean cleanUp() {
         try {
-            if(em != null && em.isOpen()) {
-                em.close();
+            if(cacheStatistics != null) {
+                cacheStatistics.logStats();
             }
             if(emf != null && emf.isOpen()) {
                 emf.close();
             }
-            log.info("Cleared EntityManager");
+            if(connectionPool != null) {
+                connectionPool.close();
+            }
+            log.info("Cleared EntityManagerFactory");
             return true;
         } catch (Exception e) {
             log.error(e.getMessage(), e);
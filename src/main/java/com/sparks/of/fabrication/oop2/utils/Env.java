@@ -12,9 +12,26 @@ public class Env {
     private String dbUrl;
     private String dbUser;
     private String dbPassword;
+    private int poolMinIdle = 2;
+    private int poolMaxSize = 10;
+    private long poolConnectionTimeoutMs = 30_000;
+    private long poolIdleTimeoutMs = 600_000;
+    private long poolLeakDetectionMs = 0;
+    private String checkoutJournalPath = "journal/checkout.journal";
+    private String rejectedBasketsPath = "journal/rejected.journal";
+    private int checkoutJournalCapacity = 8 * 1024 * 1024;
+    private double lowCashThreshold = 250;
+    private double lowCashHysteresis = 50;
+    private String lowCashThresholds = "";
+    private long inventorySearchDebounceMs = 200;
+    private int lowStockThreshold = 5;
+    private String lowStockItemThresholds = "";
+    private String lowStockCategoryThresholds = "";
 
     /**
-     * Constructor that loads environment variables for the database URL, user, and password.
+     * Constructor that loads environment variables for the database URL, user, password, connection pool,
+     * checkout journal, low cash and low stock alerts and inventory search. All but the database settings are optional and keep their
+     * defaults when missing.
      */
     public Env() {
         Dotenv dotenv = Dotenv.load();
@@ -23,6 +40,21 @@ public class Env {
             dbUrl = dotenv.get("DB_URL");
             dbUser = dotenv.get("DB_USER");
             dbPassword = dotenv.get("DB_PASSWORD");
+            poolMinIdle = Integer.parseInt(dotenv.get("DB_POOL_MIN_IDLE", String.valueOf(poolMinIdle)));
+            poolMaxSize = Integer.parseInt(dotenv.get("DB_POOL_MAX_SIZE", String.valueOf(poolMaxSize)));
+            poolConnectionTimeoutMs = Long.parseLong(dotenv.get("DB_POOL_CONNECTION_TIMEOUT_MS", String.valueOf(poolConnectionTimeoutMs)));
+            poolIdleTimeoutMs = Long.parseLong(dotenv.get("DB_POOL_IDLE_TIMEOUT_MS", String.valueOf(poolIdleTimeoutMs)));
+            poolLeakDetectionMs = Long.parseLong(dotenv.get("DB_POOL_LEAK_DETECTION_MS", String.valueOf(poolLeakDetectionMs)));
+            checkoutJournalPath = dotenv.get("CHECKOUT_JOURNAL_PATH", checkoutJournalPath);
+            rejectedBasketsPath = dotenv.get("REJECTED_BASKETS_PATH", rejectedBasketsPath);
+            checkoutJournalCapacity = Integer.parseInt(dotenv.get("CHECKOUT_JOURNAL_CAPACITY", String.valueOf(checkoutJournalCapacity)));
+            lowCashThreshold = Double.parseDouble(dotenv.get("LOW_CASH_THRESHOLD", String.valueOf(lowCashThreshold)));
+            lowCashHysteresis = Double.parseDouble(dotenv.get("LOW_CASH_HYSTERESIS", String.valueOf(lowCashHysteresis)));
+            lowCashThresholds = dotenv.get("LOW_CASH_THRESHOLDS", lowCashThresholds);
+            inventorySearchDebounceMs = Long.parseLong(dotenv.get("INVENTORY_SEARCH_DEBOUNCE_MS", String.valueOf(inventorySearchDebounceMs)));
+            lowStockThreshold = Integer.parseInt(dotenv.get("LOW_STOCK_THRESHOLD", String.valueOf(lowStockThreshold)));
+            lowStockItemThresholds = dotenv.get("LOW_STOCK_ITEM_THRESHOLDS", lowStockItemThresholds);
+            lowStockCategoryThresholds = dotenv.get("LOW_STOCK_CATEGORY_THRESHOLDS", lowStockCategoryThresholds);
         } catch (Exception e) {
             log.error(e.getMessage());
         }
@@ -54,4 +86,139 @@ public class Env {
     public String getDbPassword() {
         return dbPassword;
     }
+
+    /**
+     * Gets the minimum number of idle connections kept in the pool.
+     *
+     * @return The minimum idle connection count.
+     */
+    public int getPoolMinIdle() {
+        return poolMinIdle;
+    }
+
+    /**
+     * Gets the maximum number of connections in the pool.
+     *
+     * @return The maximum pool size.
+     */
+    public int getPoolMaxSize() {
+        return poolMaxSize;
+    }
+
+    /**
+     * Gets how long a caller waits for a free connection before failing.
+     *
+     * @return The connection timeout in milliseconds.
+     */
+    public long getPoolConnectionTimeoutMs() {
+        return poolConnectionTimeoutMs;
+    }
+
+    /**
+     * Gets how long a connection may sit idle before it is evicted.
+     *
+     * @return The idle timeout in milliseconds.
+     */
+    public long getPoolIdleTimeoutMs() {
+        return poolIdleTimeoutMs;
+    }
+
+    /**
+     * Gets how long a connection may be held before it is reported as a possible leak.
+     *
+     * @return The leak detection threshold in milliseconds, 0 when disabled.
+     */
+    public long getPoolLeakDetectionMs() {
+        return poolLeakDetectionMs;
+    }
+
+    /**
+     * Gets the path of the file journaling baskets that are not posted to the database yet.
+     *
+     * @return The checkout journal path.
+     */
+    public String getCheckoutJournalPath() {
+        return checkoutJournalPath;
+    }
+
+    /**
+     * Gets the path of the file keeping the baskets the database rejected, so a manager can resolve the sales.
+     *
+     * @return The rejected baskets path.
+     */
+    public String getRejectedBasketsPath() {
+        return rejectedBasketsPath;
+    }
+
+    /**
+     * Gets the size of the checkout journal file.
+     *
+     * @return The checkout journal capacity in bytes.
+     */
+    public int getCheckoutJournalCapacity() {
+        return checkoutJournalCapacity;
+    }
+
+    /**
+     * Gets the cash balance below which a checkout raises a low cash alert.
+     *
+     * @return The default low cash threshold.
+     */
+    public double getLowCashThreshold() {
+        return lowCashThreshold;
+    }
+
+    /**
+     * Gets how far above its threshold a checkout must climb before it can raise another low cash alert.
+     *
+     * @return The low cash hysteresis.
+     */
+    public double getLowCashHysteresis() {
+        return lowCashHysteresis;
+    }
+
+    /**
+     * Gets the low cash thresholds of single checkouts, as "checkoutId:threshold" pairs separated by commas.
+     *
+     * @return The per-checkout low cash thresholds, empty when every checkout uses the default.
+     */
+    public String getLowCashThresholds() {
+        return lowCashThresholds;
+    }
+
+    /**
+     * Gets how long the inventory search waits after a keystroke before searching, so fast typing runs one search.
+     *
+     * @return The inventory search debounce window in milliseconds.
+     */
+    public long getInventorySearchDebounceMs() {
+        return inventorySearchDebounceMs;
+    }
+
+    /**
+     * Gets the quantity below which an item raises a low stock notification.
+     *
+     * @return The default low stock threshold.
+     */
+    public int getLowStockThreshold() {
+        return lowStockThreshold;
+    }
+
+    /**
+     * Gets the low stock thresholds of single items, as "itemId:quantity" pairs separated by commas.
+     *
+     * @return The per-item low stock thresholds, empty when no item has its own.
+     */
+    public String getLowStockItemThresholds() {
+        return lowStockItemThresholds;
+    }
+
+    /**
+     * Gets the low stock thresholds of categories, as "category:quantity" pairs separated by commas.
+     *
+     * @return The per-category low stock thresholds, empty when no category has its own.
+     */
+    public String getLowStockCategoryThresholds() {
+        return lowStockCategoryThresholds;
+    }
 }
@@ -0,0 +1,227 @@
+package com.sparks.of.fabrication.oop2.utils;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Lane-local cache of item snapshots keyed by item id, so a scan is displayed without a database round trip.
+ * <p>
+ * Ids are kept in a primitive {@code long[]} open-addressing table with linear probing, so lookups never box
+ * the key. The catalog is warmed when a lane logs in and entries are invalidated whenever an item is changed
+ * through the inventory or arrival goods screens; a miss falls back to the database and fills the entry.
+ * Warming fills the tables on the background thread of the query and only swaps them on the FX thread.
+ */
+public class ItemCatalog {
+
+    private static final Logger log = LogManager.getLogger(ItemCatalog.class);
+    private static final long EMPTY = 0L;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final String CATALOG_ROWS = "SELECT new " + CatalogItem.class.getName()
+            + "(i.idItem, i.name, i.price, c.category) FROM Item i JOIN i.category c";
+
+    private long[] keys = new long[INITIAL_CAPACITY];
+    private CatalogItem[] values = new CatalogItem[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * The tables of the catalog, built off the FX thread.
+     *
+     * @param keys   The item ids by slot.
+     * @param values The snapshots by slot.
+     * @param size   The number of cached items.
+     */
+    private record Tables(long[] keys, CatalogItem[] values, int size) {
+    }
+
+    /**
+     * Loads every item into the catalog in the background, replacing the current entries.
+     *
+     * @param asyncEntityManagerWrapper The facade running the load off the FX thread.
+     * @return A future completed on the FX thread with the number of cached items.
+     */
+    public CompletableFuture<Integer> warm(AsyncEntityManagerWrapper asyncEntityManagerWrapper) {
+        return asyncEntityManagerWrapper.submit(wrapper -> {
+                    Pair<Boolean, List<CatalogItem>> rows = wrapper.findProjection(CatalogItem.class, CATALOG_ROWS, Map.of(), 0);
+                    return rows.x() ? build(rows.y()) : null;
+                })
+                .thenApply(tables -> {
+                    if (tables == null) {
+                        log.error("Could not warm the item catalog.");
+                        return 0;
+                    }
+                    replaceAll(tables);
+                    log.info("Item catalog warmed with {} items.", tables.size());
+                    return tables.size();
+                });
+    }
+
+    /**
+     * Gets the snapshot of an item.
+     *
+     * @param id The id of the item.
+     * @return The cached snapshot, or null if the item is not cached.
+     */
+    public synchronized CatalogItem get(long id) {
+        if (id == EMPTY) {
+            return null;
+        }
+        int mask = keys.length - 1;
+        for (int slot = hash(id) & mask; keys[slot] != EMPTY; slot = (slot + 1) & mask) {
+            if (keys[slot] == id) {
+                return values[slot];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Caches the snapshot of an item, replacing any previous one.
+     *
+     * @param item The snapshot to cache.
+     */
+    public synchronized void put(CatalogItem item) {
+        long id = item.id();
+        if (id == EMPTY) {
+            return;
+        }
+        if ((size + 1) * 2 > keys.length) {
+            resize(keys.length * 2);
+        }
+        if (insert(keys, values, item)) {
+            size++;
+        }
+    }
+
+    /**
+     * Removes an item from the catalog, so the next scan reads it from the database again.
+     *
+     * @param id The id of the changed item.
+     */
+    public synchronized void invalidate(long id) {
+        int mask = keys.length - 1;
+        int slot = hash(id) & mask;
+        while (keys[slot] != id) {
+            if (keys[slot] == EMPTY) {
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = EMPTY;
+        values[slot] = null;
+        size--;
+
+        // Shift the following entries of the probe chain back, so no lookup stops at the new hole
+        for (int next = (slot + 1) & mask; keys[next] != EMPTY; next = (next + 1) & mask) {
+            int home = hash(keys[next]) & mask;
+            boolean movable = slot <= next ? (home <= slot || home > next) : (home <= slot && home > next);
+            if (movable) {
+                keys[slot] = keys[next];
+                values[slot] = values[next];
+                keys[next] = EMPTY;
+                values[next] = null;
+                slot = next;
+            }
+        }
+    }
+
+    /**
+     * Gets the number of cached items.
+     *
+     * @return The number of cached items.
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Fills new tables with the given snapshots, without touching the catalog.
+     *
+     * @param items The snapshots to cache.
+     * @return The tables of the catalog.
+     */
+    private static Tables build(List<CatalogItem> items) {
+        int capacity = INITIAL_CAPACITY;
+        while (capacity < items.size() * 2) {
+            capacity <<= 1;
+        }
+        long[] keys = new long[capacity];
+        CatalogItem[] values = new CatalogItem[capacity];
+        int size = 0;
+        for (CatalogItem item : items) {
+            if (item.id() != EMPTY && insert(keys, values, item)) {
+                size++;
+            }
+        }
+        return new Tables(keys, values, size);
+    }
+
+    /**
+     * Replaces all entries with tables built by {@link #build(List)}.
+     *
+     * @param tables The new tables.
+     */
+    private synchronized void replaceAll(Tables tables) {
+        keys = tables.keys();
+        values = tables.values();
+        size = tables.size();
+    }
+
+    /**
+     * Stores a snapshot in its probe chain, replacing the snapshot of the same item. The tables must have a free slot.
+     *
+     * @param keys The item ids by slot.
+     * @param values The snapshots by slot.
+     * @param item The snapshot to store.
+     * @return True if the item was added, false if it replaced an entry.
+     */
+    private static boolean insert(long[] keys, CatalogItem[] values, CatalogItem item) {
+        long id = item.id();
+        int mask = keys.length - 1;
+        int slot = hash(id) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != id) {
+            slot = (slot + 1) & mask;
+        }
+        boolean added = keys[slot] == EMPTY;
+        keys[slot] = id;
+        values[slot] = item;
+        return added;
+    }
+
+    /**
+     * Moves all entries into tables of the given capacity.
+     *
+     * @param capacity The new capacity, a power of two.
+     */
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        CatalogItem[] oldValues = values;
+        keys = new long[capacity];
+        values = new CatalogItem[capacity];
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = hash(oldKeys[i]) & mask;
+                while (keys[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    /**
+     * Spreads the bits of an id, so consecutive ids do not form long probe chains.
+     *
+     * @param id The id to hash.
+     * @return The hash of the id.
+     */
+    private static int hash(long id) {
+        long h = id * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,10 @@
+package com.sparks.of.fabrication.oop2.utils;
+
+/**
+ * The name of an item, as held by the {@link ItemNameIndex}.
+ *
+ * @param id   The id of the item.
+ * @param name The name of the item.
+ */
+public record ItemName(Long id, String name) {
+}
@@ -0,0 +1,246 @@
+package com.sparks.of.fabrication.oop2.utils;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * In-memory prefix index over the names of all items, so a name search is answered without a database query.
+ * <p>
+ * Names are kept sorted in a {@code String[]} with the item ids in a parallel {@code long[]}; the items whose
+ * name starts with a prefix are the contiguous run found by a binary search for the prefix. Like the
+ * {@code LIKE 'text%'} query it replaces, matching is case-sensitive. The index is warmed in the background and
+ * kept in sync by the inventory screen whenever an item is created, renamed or deleted; until it is warmed,
+ * {@link #isReady()} is false and callers search the database instead. Warming reads and sorts the names on the
+ * background thread of the query and only swaps the arrays on the FX thread, so a large catalog does not freeze the UI.
+ */
+public class ItemNameIndex {
+
+    private static final Logger log = LogManager.getLogger(ItemNameIndex.class);
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final String NAME_ROWS = "SELECT new " + ItemName.class.getName() + "(i.idItem, i.name) FROM Item i";
+
+    private String[] names = new String[INITIAL_CAPACITY];
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private Map<Long, String> namesById = new HashMap<>();
+    private int size;
+    private boolean ready;
+
+    /**
+     * The sorted entries of the index, built off the FX thread.
+     *
+     * @param names     The names, sorted by name and then id, followed by free slots.
+     * @param ids       The item ids, parallel to the names.
+     * @param namesById The name of every indexed item by id.
+     * @param size      The number of entries.
+     */
+    private record Entries(String[] names, long[] ids, Map<Long, String> namesById, int size) {
+    }
+
+    /**
+     * Loads the names of all items in the background, replacing the current entries.
+     *
+     * @param asyncEntityManagerWrapper The facade running the load off the FX thread.
+     * @return A future completed on the FX thread with the number of indexed items.
+     */
+    public CompletableFuture<Integer> warm(AsyncEntityManagerWrapper asyncEntityManagerWrapper) {
+        return asyncEntityManagerWrapper.submit(wrapper -> {
+                    Pair<Boolean, List<ItemName>> rows = wrapper.findProjection(ItemName.class, NAME_ROWS, Map.of(), 0);
+                    return rows.x() ? build(rows.y()) : null;
+                })
+                .thenApply(entries -> {
+                    if (entries == null) {
+                        log.error("Could not warm the item name index.");
+                        return 0;
+                    }
+                    replaceAll(entries);
+                    log.info("Item name index warmed with {} items.", entries.size());
+                    return entries.size();
+                });
+    }
+
+    /**
+     * Checks whether the index holds every item.
+     *
+     * @return True once the index was warmed, false before.
+     */
+    public synchronized boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Finds the first items whose name starts with the prefix.
+     *
+     * @param prefix The start of the name.
+     * @param limit The maximum number of items to return, or zero for all items.
+     * @return The ids of the matching items, ordered by name.
+     */
+    public synchronized long[] findByPrefix(String prefix, int limit) {
+        int from = lowerBound(prefix);
+        int end = limit > 0 ? (int) Math.min(size, (long) from + limit) : size;
+        int to = from;
+        while (to < end && names[to].startsWith(prefix)) {
+            to++;
+        }
+        return Arrays.copyOfRange(ids, from, to);
+    }
+
+    /**
+     * Adds an item or updates its name.
+     *
+     * @param id The id of the item.
+     * @param name The name of the item.
+     */
+    public synchronized void put(long id, String name) {
+        if (name == null) {
+            remove(id);
+            return;
+        }
+        String previous = namesById.get(id);
+        if (name.equals(previous)) {
+            return;
+        }
+        if (previous != null) {
+            removeAt(indexOf(id, previous));
+        }
+        if (size == names.length) {
+            names = Arrays.copyOf(names, size * 2);
+            ids = Arrays.copyOf(ids, size * 2);
+        }
+        int slot = insertionPoint(name, id);
+        System.arraycopy(names, slot, names, slot + 1, size - slot);
+        System.arraycopy(ids, slot, ids, slot + 1, size - slot);
+        names[slot] = name;
+        ids[slot] = id;
+        size++;
+        namesById.put(id, name);
+    }
+
+    /**
+     * Removes a deleted item.
+     *
+     * @param id The id of the item.
+     */
+    public synchronized void remove(long id) {
+        String previous = namesById.remove(id);
+        if (previous != null) {
+            removeAt(indexOf(id, previous));
+        }
+    }
+
+    /**
+     * Gets the number of indexed items.
+     *
+     * @return The number of indexed items.
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Sorts the given names into new entries, without touching the index.
+     *
+     * @param rows The names of all items.
+     * @return The entries of the index.
+     */
+    private static Entries build(List<ItemName> rows) {
+        ItemName[] sorted = rows.stream()
+                .filter(row -> row.name() != null)
+                .sorted(Comparator.comparing(ItemName::name).thenComparing(ItemName::id))
+                .toArray(ItemName[]::new);
+        int capacity = Math.max(INITIAL_CAPACITY, sorted.length * 2);
+        String[] names = new String[capacity];
+        long[] ids = new long[capacity];
+        Map<Long, String> namesById = new HashMap<>(sorted.length * 2);
+        for (int i = 0; i < sorted.length; i++) {
+            names[i] = sorted[i].name();
+            ids[i] = sorted[i].id();
+            namesById.put(sorted[i].id(), sorted[i].name());
+        }
+        return new Entries(names, ids, namesById, sorted.length);
+    }
+
+    /**
+     * Replaces all entries with entries built by {@link #build(List)}.
+     *
+     * @param entries The new entries.
+     */
+    private synchronized void replaceAll(Entries entries) {
+        names = entries.names();
+        ids = entries.ids();
+        namesById = entries.namesById();
+        size = entries.size();
+        ready = true;
+    }
+
+    /**
+     * Finds the first entry whose name is not smaller than the prefix.
+     *
+     * @param prefix The start of the name.
+     * @return The index of the entry, or the size if every name is smaller.
+     */
+    private int lowerBound(String prefix) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (names[middle].compareTo(prefix) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Finds where an entry belongs in the sorted arrays.
+     *
+     * @param name The name of the entry.
+     * @param id The id of the entry.
+     * @return The index of the first entry ordered after it.
+     */
+    private int insertionPoint(String name, long id) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            int order = names[middle].compareTo(name);
+            if (order < 0 || (order == 0 && ids[middle] < id)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Finds an indexed entry.
+     *
+     * @param id The id of the entry.
+     * @param name The indexed name of the entry.
+     * @return The index of the entry.
+     */
+    private int indexOf(long id, String name) {
+        return insertionPoint(name, id);
+    }
+
+    /**
+     * Removes the entry at an index.
+     *
+     * @param index The index of the entry.
+     */
+    private void removeAt(int index) {
+        System.arraycopy(names, index + 1, names, index, size - index - 1);
+        System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+        size--;
+        names[size] = null;
+    }
+}
@@ -0,0 +1,22 @@
+package com.sparks.of.fabrication.oop2.utils;
+
+import java.util.List;
+
+/**
+ * A generic record that holds one page of a keyset-paginated query.
+ *
+ * @param items   The entities of the page, in sort order.
+ * @param nextKey The sort key to continue after, or null when this is the last page.
+ * @param <T>     The type of the entities in the page.
+ */
+public record Page<T>(List<T> items, Object nextKey) {
+
+    /**
+     * Checks whether another page follows this one.
+     *
+     * @return True if there is a next page.
+     */
+    public boolean hasNext() {
+        return nextKey != null;
+    }
+}
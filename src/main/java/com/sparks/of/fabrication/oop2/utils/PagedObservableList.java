@@ -0,0 +1,254 @@
+package com.sparks.of.fabrication.oop2.utils;
+
+import javafx.application.Platform;
+import javafx.collections.ObservableListBase;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * A read-only observable list over all entities of a class that reads its rows from the database page by page,
+ * only when a TableView asks for them.
+ * <p>
+ * The table only calls {@link #get(int)} for the rows it draws. A row whose page is not loaded yet is returned
+ * as null, an empty row, and its page is read on a background thread together with the pages around it; once it
+ * arrives the rows are replaced and the table redraws them. Pages are keyset pages ordered by a unique sort field,
+ * see {@link EntityManagerWrapper#findPage(Class, Field, Object, int, Map)}. A jump to a page far from the loaded
+ * ones first seeks its start key with {@link EntityManagerWrapper#findKeyAfter(Class, Field, Object, int)}.
+ * At most a fixed number of pages is kept, the least recently shown are dropped first, so memory and the time
+ * to open the table do not depend on the number of entities.
+ * <p>
+ * The size is fixed when the list is created; create a new list after adding or deleting entities.
+ * The list must only be used from the FX thread.
+ *
+ * @param <T> The type of the entities.
+ */
+public class PagedObservableList<T> extends ObservableListBase<T> {
+
+    private static final Logger log = LogManager.getLogger(PagedObservableList.class);
+
+    private final AsyncEntityManagerWrapper asyncEntityManager;
+    private final Class<T> tClass;
+    private final Field sortField;
+    private final int size;
+    private final int pageSize;
+    private final int cachedPages;
+    private final Map<Integer, Page<T>> pages;
+    private final Set<Integer> pending = new HashSet<>();
+    private final TreeSet<Integer> wanted = new TreeSet<>();
+    private boolean flushScheduled;
+    private volatile int demandedPage;
+
+    /**
+     * Creates the list. No rows are read until the list is shown.
+     *
+     * @param asyncEntityManager The wrapper running the page reads in the background.
+     * @param tClass The class of the entities.
+     * @param sortField The unique field the entities are ordered by, usually the id.
+     * @param size The number of entities, see {@link EntityManagerWrapper#countEntities(Class)}.
+     * @param pageSize The number of rows read at once.
+     * @param cachedPages The maximum number of pages kept in memory, at least the visible pages plus two.
+     */
+    public PagedObservableList(AsyncEntityManagerWrapper asyncEntityManager, Class<T> tClass, Field sortField,
+                               int size, int pageSize, int cachedPages) {
+        this.asyncEntityManager = asyncEntityManager;
+        this.tClass = tClass;
+        this.sortField = sortField;
+        this.size = size;
+        this.pageSize = pageSize;
+        this.cachedPages = cachedPages;
+        this.pages = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Page<T>> eldest) {
+                return size() > cachedPages;
+            }
+        };
+    }
+
+    /**
+     * Gets a row, requesting its page when it is not loaded.
+     *
+     * @param index The index of the row.
+     * @return The entity, or null while its page is being read.
+     */
+    @Override
+    public T get(int index) {
+        Objects.checkIndex(index, size);
+        int pageIndex = index / pageSize;
+        Page<T> page = pages.get(pageIndex);
+        if (page == null) {
+            request(pageIndex);
+            return null;
+        }
+        int row = index % pageSize;
+        return row < page.items().size() ? page.items().get(row) : null;
+    }
+
+    /**
+     * Gets the number of rows.
+     *
+     * @return The number of entities when the list was created.
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Finds a row among the loaded pages only, so looking up a shown entity does not read the whole table.
+     *
+     * @param o The entity to find.
+     * @return The index of the entity, or -1 if it is not in a loaded page.
+     */
+    @Override
+    public int indexOf(Object o) {
+        for (Map.Entry<Integer, Page<T>> page : pages.entrySet()) {
+            int row = page.getValue().items().indexOf(o);
+            if (row >= 0) {
+                return page.getKey() * pageSize + row;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Finds a row among the loaded pages only, see {@link #indexOf(Object)}.
+     *
+     * @param o The entity to find.
+     * @return The index of the entity, or -1 if it is not in a loaded page.
+     */
+    @Override
+    public int lastIndexOf(Object o) {
+        return indexOf(o);
+    }
+
+    /**
+     * Checks whether an entity is in one of the loaded pages.
+     *
+     * @param o The entity to find.
+     * @return True if the entity is in a loaded page.
+     */
+    @Override
+    public boolean contains(Object o) {
+        return indexOf(o) >= 0;
+    }
+
+    /**
+     * Marks a page as wanted. The pages wanted while the table lays out its rows are read together
+     * right after the layout.
+     *
+     * @param pageIndex The index of the page.
+     */
+    private void request(int pageIndex) {
+        demandedPage = pageIndex;
+        if (pending.contains(pageIndex) || !wanted.add(pageIndex) || flushScheduled) {
+            return;
+        }
+        flushScheduled = true;
+        Platform.runLater(this::flush);
+    }
+
+    /**
+     * Reads the wanted pages and the pages next to them in the background and shows them once they arrive.
+     */
+    private void flush() {
+        flushScheduled = false;
+        if (wanted.isEmpty()) {
+            return;
+        }
+        TreeSet<Integer> toLoad = new TreeSet<>(wanted);
+        wanted.clear();
+        int pageCount = (size + pageSize - 1) / pageSize;
+        for (int neighbour : new int[]{toLoad.first() - 1, toLoad.last() + 1}) {
+            if (neighbour >= 0 && neighbour < pageCount && !pages.containsKey(neighbour) && !pending.contains(neighbour)) {
+                toLoad.add(neighbour);
+            }
+        }
+        pending.addAll(toLoad);
+
+        NavigableMap<Integer, Object> anchors = new TreeMap<>();
+        anchors.put(0, null);
+        for (Map.Entry<Integer, Page<T>> page : pages.entrySet()) {
+            if (page.getValue().hasNext()) {
+                anchors.put(page.getKey() + 1, page.getValue().nextKey());
+            }
+        }
+
+        List<Integer> pageIndexes = new ArrayList<>(toLoad);
+        asyncEntityManager.submit(wrapper -> loadPages(wrapper, pageIndexes, anchors))
+                .whenComplete((loaded, error) -> {
+                    pageIndexes.forEach(pending::remove);
+                    if (error != null) {
+                        log.error("Error loading pages of {}: {}", tClass.getSimpleName(), error.getMessage());
+                        return;
+                    }
+                    loaded.forEach(this::showPage);
+                });
+    }
+
+    /**
+     * Reads pages on a background thread. Pages the user has scrolled far away from in the meantime are skipped.
+     *
+     * @param wrapper The wrapper to read with.
+     * @param pageIndexes The pages to read, in ascending order.
+     * @param anchors The known keys after which a page starts, by page index.
+     * @return The read pages by page index.
+     */
+    private Map<Integer, Page<T>> loadPages(EntityManagerWrapper wrapper, List<Integer> pageIndexes,
+                                            NavigableMap<Integer, Object> anchors) {
+        Map<Integer, Page<T>> loaded = new LinkedHashMap<>();
+        for (int pageIndex : pageIndexes) {
+            if (Math.abs(pageIndex - demandedPage) > cachedPages / 2) {
+                continue;
+            }
+            Map.Entry<Integer, Object> anchor = anchors.floorEntry(pageIndex);
+            Object afterKey = anchor.getValue();
+            int skip = (pageIndex - anchor.getKey()) * pageSize;
+            if (skip > 0) {
+                Pair<Boolean, Object> seek = wrapper.findKeyAfter(tClass, sortField, afterKey, skip);
+                if (!seek.x() || seek.y() == null) {
+                    continue;
+                }
+                afterKey = seek.y();
+            }
+
+            Pair<Boolean, Page<T>> page = wrapper.findPage(tClass, sortField, afterKey, pageSize, Map.of());
+            if (!page.x()) {
+                continue;
+            }
+            loaded.put(pageIndex, page.y());
+            if (page.y().hasNext()) {
+                anchors.put(pageIndex + 1, page.y().nextKey());
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Stores a read page and tells the table its rows were replaced.
+     *
+     * @param pageIndex The index of the page.
+     * @param page The read page.
+     */
+    private void showPage(int pageIndex, Page<T> page) {
+        pages.put(pageIndex, page);
+        int from = pageIndex * pageSize;
+        int to = Math.min(size, from + pageSize);
+        beginChange();
+        for (int i = from; i < to; i++) {
+            nextSet(i, null);
+        }
+        endChange();
+    }
+}
@@ -0,0 +1,98 @@
+package com.sparks.of.fabrication.oop2.utils;
+
+import javafx.geometry.Orientation;
+import javafx.scene.Node;
+import javafx.scene.control.ScrollBar;
+import javafx.scene.control.TableView;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Fills a TableView page by page from a keyset-paginated source, loading the next page
+ * when the user scrolls to the bottom of the table.
+ *
+ * @param <T> The type of the rows in the table.
+ */
+public class PagedTableLoader<T> {
+
+    private final TableView<T> table;
+    private Function<Object, Page<T>> pageFetcher;
+    private Object nextKey;
+
+    /**
+     * Creates a loader for the given table and starts listening for scrolling once the table has a skin.
+     *
+     * @param table The table to fill.
+     */
+    public PagedTableLoader(TableView<T> table) {
+        this.table = table;
+        if (table.getSkin() != null) {
+            attachScrollListener();
+        } else {
+            table.skinProperty().addListener((observable, oldSkin, newSkin) -> {
+                if (newSkin != null) {
+                    attachScrollListener();
+                }
+            });
+        }
+    }
+
+    /**
+     * Clears the table and loads the first page from the given source.
+     *
+     * @param pageFetcher Function fetching the page that follows the given key, null for the first page.
+     */
+    public void load(Function<Object, Page<T>> pageFetcher) {
+        this.pageFetcher = pageFetcher;
+        this.nextKey = null;
+        table.getItems().clear();
+        fetchPage(null);
+    }
+
+    /**
+     * Shows a fixed list of rows and stops paging until {@link #load(Function)} is called again.
+     *
+     * @param items The rows to show.
+     */
+    public void showItems(List<T> items) {
+        this.pageFetcher = null;
+        this.nextKey = null;
+        table.getItems().setAll(items);
+    }
+
+    /**
+     * Appends the next page to the table, if there is one.
+     */
+    public void loadNextPage() {
+        if (pageFetcher != null && nextKey != null) {
+            fetchPage(nextKey);
+        }
+    }
+
+    /**
+     * Fetches the page after the given key and appends it to the table.
+     *
+     * @param afterKey The key to continue after.
+     */
+    private void fetchPage(Object afterKey) {
+        Page<T> page = pageFetcher.apply(afterKey);
+        table.getItems().addAll(page.items());
+        nextKey = page.nextKey();
+    }
+
+    /**
+     * Loads the next page whenever the vertical scroll bar of the table reaches its end.
+     */
+    private void attachScrollListener() {
+        for (Node node : table.lookupAll(".scroll-bar")) {
+            if (node instanceof ScrollBar scrollBar && scrollBar.getOrientation() == Orientation.VERTICAL) {
+                scrollBar.valueProperty().addListener((observable, oldValue, newValue) -> {
+                    if (newValue.doubleValue() >= scrollBar.getMax()) {
+                        loadNextPage();
+                    }
+                });
+            }
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.sparks.of.fabrication.oop2.utils;
+
+/**
+ * Enum representing the comparison a precompiled query applies to its field.
+ */
+public enum QueryOperator {
+    /**
+     * Matches entities whose field equals the :value parameter.
+     */
+    EQUALS,
+
+    /**
+     * Matches entities whose field matches the :value pattern.
+     */
+    LIKE,
+
+    /**
+     * Matches entities whose field lies between the :startDate and :endDate parameters.
+     */
+    BETWEEN,
+
+    /**
+     * Matches entities whose field equals any element of the :value collection.
+     */
+    IN,
+}
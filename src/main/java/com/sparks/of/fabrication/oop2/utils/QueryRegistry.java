@@ -0,0 +1,222 @@
+package com.sparks.of.fabrication.oop2.utils;
+
+import jakarta.persistence.Cacheable;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.metamodel.EntityType;
+import jakarta.persistence.metamodel.SingularAttribute;
+import jakarta.persistence.metamodel.Type;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.lang.reflect.Field;
+import java.time.temporal.Temporal;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of precompiled, parameterized queries keyed by entity, field, operator and joins.
+ * Queries for every entity attribute are parsed and registered as named queries once at startup,
+ * so lookups on the hot path neither build nor parse JPQL. Every query fetch-joins the to-one associations
+ * of its entity, so the returned entities can be read by the screens after their EntityManager is closed.
+ */
+public class QueryRegistry {
+
+    private static final Logger log = LogManager.getLogger(QueryRegistry.class);
+    private static final Map<Class<?>, Map<String, Field>> fields = new ConcurrentHashMap<>();
+
+    private final EntityManagerFactory emf;
+    private final Map<QueryKey, String> queryNames = new ConcurrentHashMap<>();
+    private final Map<Class<?>, String> fetchJoins = new ConcurrentHashMap<>();
+
+    /**
+     * Identifies one precompiled query.
+     *
+     * @param entity   The entity class the query selects.
+     * @param field    The field the query compares.
+     * @param operator The comparison applied to the field.
+     * @param joins    The associations joined before comparing.
+     */
+    private record QueryKey(Class<?> entity, String field, QueryOperator operator, List<String> joins) {
+    }
+
+    /**
+     * Creates the registry and precompiles the queries for all entity attributes.
+     *
+     * @param emf The factory the named queries are registered on.
+     */
+    public QueryRegistry(EntityManagerFactory emf) {
+        this.emf = emf;
+        EntityManager em = emf.createEntityManager();
+        try {
+            for (EntityType<?> entity : emf.getMetamodel().getEntities()) {
+                StringBuilder joins = new StringBuilder();
+                appendFetchJoins(joins, entity, "e", new HashSet<>(Set.of(entity.getJavaType())));
+                fetchJoins.put(entity.getJavaType(), joins.toString());
+            }
+            for (EntityType<?> entity : emf.getMetamodel().getEntities()) {
+                for (SingularAttribute<?, ?> attribute : entity.getSingularAttributes()) {
+                    try {
+                        Class<?> type = attribute.getJavaType();
+                        register(em, new QueryKey(entity.getJavaType(), attribute.getName(), QueryOperator.EQUALS, List.of()));
+                        if (type == String.class) {
+                            register(em, new QueryKey(entity.getJavaType(), attribute.getName(), QueryOperator.LIKE, List.of()));
+                        }
+                        if (Temporal.class.isAssignableFrom(type) || Date.class.isAssignableFrom(type)) {
+                            register(em, new QueryKey(entity.getJavaType(), attribute.getName(), QueryOperator.BETWEEN, List.of()));
+                        }
+                    } catch (Exception e) {
+                        log.warn("Could not precompile queries for {}.{}: {}", entity.getName(), attribute.getName(), e.getMessage());
+                    }
+                }
+            }
+            log.info("Precompiled {} queries.", queryNames.size());
+        } finally {
+            em.close();
+        }
+    }
+
+    /**
+     * Gets a declared field of a class, looking it up by reflection only the first time.
+     *
+     * @param tClass The class declaring the field.
+     * @param name   The name of the field.
+     * @return The field.
+     * @throws IllegalArgumentException If the class has no such field.
+     */
+    public static Field field(Class<?> tClass, String name) {
+        return fields.computeIfAbsent(tClass, key -> new ConcurrentHashMap<>()).computeIfAbsent(name, key -> {
+            try {
+                return tClass.getDeclaredField(key);
+            } catch (NoSuchFieldException e) {
+                throw new IllegalArgumentException("No field " + key + " in " + tClass.getSimpleName(), e);
+            }
+        });
+    }
+
+    /**
+     * Gets the select clause for all entities of a class, with the fetch joins of its to-one associations.
+     * The entity is aliased as "e", so conditions and ordering can be appended to the result.
+     *
+     * @param tClass The entity class to select.
+     * @return The JPQL select clause.
+     */
+    public String selectFrom(Class<?> tClass) {
+        return "SELECT e FROM " + tClass.getSimpleName() + " e" + fetchJoins.getOrDefault(tClass, "");
+    }
+
+    /**
+     * Creates a query comparing one field of the entity.
+     *
+     * @param em       The EntityManager running the query.
+     * @param tClass   The entity class to select.
+     * @param field    The field to compare.
+     * @param operator The comparison to apply.
+     * @param <T>      The type of the entity.
+     * @return The ready query, waiting for its parameters.
+     */
+    public <T> TypedQuery<T> createQuery(EntityManager em, Class<T> tClass, String field, QueryOperator operator) {
+        return createQuery(em, tClass, field, operator, List.of());
+    }
+
+    /**
+     * Creates a query comparing one field of the entity after joining the given associations.
+     * Queries that were not precompiled at startup are compiled and registered on first use.
+     *
+     * @param em       The EntityManager running the query.
+     * @param tClass   The entity class to select.
+     * @param field    The field to compare.
+     * @param operator The comparison to apply.
+     * @param joins    The associations to join.
+     * @param <T>      The type of the entity.
+     * @return The ready query, waiting for its parameters.
+     */
+    public <T> TypedQuery<T> createQuery(EntityManager em, Class<T> tClass, String field, QueryOperator operator, List<String> joins) {
+        QueryKey key = new QueryKey(tClass, field, operator, List.copyOf(joins));
+        String name = queryNames.get(key);
+        if (name == null) {
+            name = register(em, key);
+        }
+        return cacheable(em.createNamedQuery(name, tClass), tClass);
+    }
+
+    /**
+     * Marks the query as cacheable when its entity is a cached reference entity, so repeated
+     * lookups are answered from the query cache until one of the queried tables changes.
+     *
+     * @param query  The query to mark.
+     * @param tClass The entity class the query selects.
+     * @param <T>    The type of the entity.
+     * @return The same query.
+     */
+    public static <T> TypedQuery<T> cacheable(TypedQuery<T> query, Class<T> tClass) {
+        if (tClass.isAnnotationPresent(Cacheable.class)) {
+            query.setHint("org.hibernate.cacheable", true);
+        }
+        return query;
+    }
+
+    /**
+     * Builds, parses and registers the query for the given key as a named query.
+     *
+     * @param em  The EntityManager used to parse the query.
+     * @param key The query to register.
+     * @return The name the query was registered under.
+     */
+    private String register(EntityManager em, QueryKey key) {
+        return queryNames.computeIfAbsent(key, k -> {
+            String name = k.entity().getSimpleName() + "." + k.field() + "." + k.operator()
+                    + (k.joins().isEmpty() ? "" : "." + String.join(".", k.joins()));
+            emf.addNamedQuery(name, em.createQuery(buildJpql(k)));
+            return name;
+        });
+    }
+
+    /**
+     * Builds the JPQL for the given key.
+     *
+     * @param key The query to build.
+     * @return The JPQL string.
+     */
+    private String buildJpql(QueryKey key) {
+        StringBuilder jpql = new StringBuilder(selectFrom(key.entity()));
+        for (String join : key.joins()) {
+            jpql.append(" JOIN e.").append(join);
+        }
+        jpql.append(" WHERE e.").append(key.field());
+        switch (key.operator()) {
+            case EQUALS -> jpql.append(" = :value");
+            case LIKE -> jpql.append(" LIKE :value");
+            case BETWEEN -> jpql.append(" BETWEEN :startDate AND :endDate");
+            case IN -> jpql.append(" IN :value");
+        }
+        return jpql.toString();
+    }
+
+    /**
+     * Appends a fetch join for every to-one association of the given type, and for the associations of the
+     * joined entities in turn. An entity already on the path is not joined again, so cycles end.
+     *
+     * @param joins The fetch joins built so far.
+     * @param type  The entity whose associations are joined.
+     * @param alias The alias of that entity in the query.
+     * @param path  The entity classes joined on the way to this one.
+     */
+    private static void appendFetchJoins(StringBuilder joins, EntityType<?> type, String alias, Set<Class<?>> path) {
+        for (SingularAttribute<?, ?> attribute : type.getSingularAttributes()) {
+            Type<?> target = attribute.getType();
+            if (!attribute.isAssociation() || !(target instanceof EntityType<?> entity) || !path.add(entity.getJavaType())) {
+                continue;
+            }
+            String joinAlias = alias + "_" + attribute.getName();
+            joins.append(" LEFT JOIN FETCH ").append(alias).append('.').append(attribute.getName()).append(' ').append(joinAlias);
+            appendFetchJoins(joins, entity, joinAlias, path);
+            path.remove(entity.getJavaType());
+        }
+    }
+}
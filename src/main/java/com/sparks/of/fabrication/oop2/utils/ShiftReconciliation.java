@@ -0,0 +1,37 @@
+package com.sparks.of.fabrication.oop2.utils;
+
+import java.time.LocalDateTime;
+
+/**
+ * Cash reconciliation of a checkout drawer for the current shift, all amounts in cents.
+ *
+ * @param checkoutId   The id of the checkout.
+ * @param openedAt     The time the shift started.
+ * @param openingMinor The cash in the drawer when the shift started.
+ * @param shift        The totals of the movements made during the shift.
+ * @param closingMinor The cash that should be in the drawer now.
+ */
+public record ShiftReconciliation(long checkoutId, LocalDateTime openedAt, long openingMinor, CashTotals shift,
+                                  long closingMinor) {
+
+    /**
+     * Formats the reconciliation for the log.
+     *
+     * @return The reconciliation as one line of text.
+     */
+    public String describe() {
+        return String.format("Checkout %d since %s: opening %s, sales %s, cash in %s, cash out %s, corrections %s, expected %s (%d movements)",
+                checkoutId, openedAt, format(openingMinor), format(shift.salesMinor()), format(shift.cashInMinor()),
+                format(shift.cashOutMinor()), format(shift.correctionsMinor()), format(closingMinor), shift.movements());
+    }
+
+    /**
+     * Formats an amount in cents.
+     *
+     * @param minor The amount in cents.
+     * @return The amount, e.g. "$12.30" or "-$0.50".
+     */
+    private static String format(long minor) {
+        return String.format("%s$%d.%02d", minor < 0 ? "-" : "", Math.abs(minor) / 100, Math.abs(minor) % 100);
+    }
+}
@@ -0,0 +1,25 @@
+package com.sparks.of.fabrication.oop2.utils;
+
+import com.sparks.of.fabrication.oop2.models.Item;
+
+/**
+ * The quantity in stock of an item after a stock change.
+ *
+ * @param id       The id of the item.
+ * @param name     The name of the item.
+ * @param category The name of the category of the item, or null if it has none.
+ * @param quantity The quantity left in stock.
+ */
+public record StockLevel(Long id, String name, String category, Integer quantity) {
+
+    /**
+     * Reads the stock level of an item entity.
+     *
+     * @param item The item.
+     * @return The stock level of the item.
+     */
+    public static StockLevel of(Item item) {
+        return new StockLevel(item.getIdItem(), item.getName(),
+                item.getCategory() != null ? item.getCategory().getCategory() : null, item.getQuantity());
+    }
+}
@@ -0,0 +1,197 @@
+package com.sparks.of.fabrication.oop2.utils;
+
+import com.sparks.of.fabrication.oop2.models.Employee;
+import com.sparks.of.fabrication.oop2.models.Notification;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+/**
+ * Watches the stock of every item as it changes and sends a notification when an item runs low.
+ * <p>
+ * The monitor is fed by the places that lower stock: checkout sales and manual edits in the inventory. It keeps
+ * no state of its own: a notification is sent when a change takes an item from at least its threshold to below it,
+ * judged from the quantities before and after that change. Since every change is reported by the one process that
+ * made it, each crossing notifies once, however many lanes run and however often they restart, and an item that is
+ * already low does not notify again until it has been restocked.
+ * Thresholds come from {@code LOW_STOCK_ITEM_THRESHOLDS} for single items, then
+ * {@code LOW_STOCK_CATEGORY_THRESHOLDS} for categories, then {@code LOW_STOCK_THRESHOLD}.
+ */
+public class StockLevelMonitor {
+
+    private static final Logger log = LogManager.getLogger(StockLevelMonitor.class);
+
+    private final EntityManagerWrapper entityManagerWrapper;
+    private final int defaultThreshold;
+    private final Map<Long, Integer> itemThresholds = new ConcurrentHashMap<>();
+    private final Map<String, Integer> categoryThresholds = new ConcurrentHashMap<>();
+
+    /**
+     * Creates the monitor with the thresholds configured in the environment.
+     *
+     * @param env The environment holding the thresholds.
+     * @param entityManagerWrapper The wrapper writing the notifications.
+     */
+    public StockLevelMonitor(Env env, EntityManagerWrapper entityManagerWrapper) {
+        this.entityManagerWrapper = entityManagerWrapper;
+        this.defaultThreshold = env.getLowStockThreshold();
+        parseThresholds(env.getLowStockItemThresholds(), (key, threshold) -> setItemThreshold(Long.parseLong(key), threshold));
+        parseThresholds(env.getLowStockCategoryThresholds(), this::setCategoryThreshold);
+    }
+
+    /**
+     * Records the stock levels of several items after a sale.
+     *
+     * @param levels The stock levels after the sale, read in the transaction that decreased them.
+     * @param sold The quantity sold by item id.
+     */
+    public void recordSales(Collection<StockLevel> levels, Map<Long, Integer> sold) {
+        for (StockLevel level : levels) {
+            if (level.quantity() != null) {
+                record(level, level.quantity() + sold.getOrDefault(level.id(), 0));
+            }
+        }
+    }
+
+    /**
+     * Records a change of the stock of an item and sends a notification if it took the item below its threshold.
+     *
+     * @param level The stock level after the change.
+     * @param previousQuantity The quantity in stock before the change.
+     * @return True if the item dropped below its threshold, false otherwise.
+     */
+    public boolean record(StockLevel level, int previousQuantity) {
+        if (level.id() == null || level.quantity() == null) {
+            return false;
+        }
+        int threshold = getThreshold(level.id(), level.category());
+        boolean dropped = level.quantity() < threshold && previousQuantity >= threshold;
+        if (dropped) {
+            notifyLowStock(level, threshold);
+        }
+        return dropped;
+    }
+
+    /**
+     * Checks whether an item is below its threshold, without sending a notification.
+     *
+     * @param level The stock level of the item.
+     * @return True if the item is low on stock, false otherwise.
+     */
+    public boolean isLow(StockLevel level) {
+        return level.id() != null && level.quantity() != null && level.quantity() < getThreshold(level.id(), level.category());
+    }
+
+    /**
+     * Sends one notification for all items left low on stock by a bulk change such as an import,
+     * instead of one per item.
+     *
+     * @param source What changed the stock, e.g. the imported file.
+     * @param count The number of items left low on stock.
+     * @param names The names of some of those items.
+     * @return True if the notification was sent, false otherwise.
+     */
+    public boolean notifyLowStockSummary(String source, long count, List<String> names) {
+        if (count == 0) {
+            return false;
+        }
+        String listed = String.join(", ", names) + (count > names.size() ? " and " + (count - names.size()) + " more" : "");
+        if (!sendNotification(count + " imported items are low on stock: " + listed + ".")) {
+            log.error("Could not send the low stock notification of {}", source);
+            return false;
+        }
+        log.warn("{} left {} items low on stock: {}", source, count, listed);
+        return true;
+    }
+
+    /**
+     * Gets the low stock threshold of an item.
+     *
+     * @param id The id of the item.
+     * @param category The name of the category of the item, or null.
+     * @return The threshold.
+     */
+    public int getThreshold(long id, String category) {
+        Integer threshold = itemThresholds.get(id);
+        if (threshold == null && category != null) {
+            threshold = categoryThresholds.get(category);
+        }
+        return threshold != null ? threshold : defaultThreshold;
+    }
+
+    /**
+     * Sets the low stock threshold of an item.
+     *
+     * @param id The id of the item.
+     * @param threshold The threshold.
+     */
+    public void setItemThreshold(long id, int threshold) {
+        itemThresholds.put(id, threshold);
+    }
+
+    /**
+     * Sets the low stock threshold of the items of a category that have no threshold of their own.
+     *
+     * @param category The name of the category.
+     * @param threshold The threshold.
+     */
+    public void setCategoryThreshold(String category, int threshold) {
+        categoryThresholds.put(category, threshold);
+    }
+
+    /**
+     * Sends the notification for an item that ran low.
+     *
+     * @param level The stock level of the item.
+     * @param threshold The threshold of the item.
+     */
+    private void notifyLowStock(StockLevel level, int threshold) {
+        if (!sendNotification("Item " + level.name() + " is low on stock! " + level.quantity() + " left, threshold " + threshold + ".")) {
+            log.error("Could not send the low stock notification of item {}", level.id());
+            return;
+        }
+        log.warn("Item {} ({}) is low on stock: {} left, threshold {}", level.name(), level.id(), level.quantity(), threshold);
+    }
+
+    /**
+     * Writes an unread notification for the current employee.
+     *
+     * @param message The message of the notification.
+     * @return True if the notification was written, false otherwise.
+     */
+    private boolean sendNotification(String message) {
+        Notification notification = new Notification();
+        notification.setDateSent(Date.valueOf(LocalDate.now()));
+        notification.setEmployee(Singleton.getInstance(Employee.class));
+        notification.setMessage(message);
+        notification.setStatus("unread");
+        return entityManagerWrapper.genEntity(notification);
+    }
+
+    /**
+     * Reads thresholds given as "key:threshold" pairs separated by commas.
+     *
+     * @param config The thresholds, e.g. "12:20,40:3".
+     * @param setter Stores one threshold.
+     */
+    private static void parseThresholds(String config, BiConsumer<String, Integer> setter) {
+        if (config == null || config.isBlank()) {
+            return;
+        }
+        for (String entry : config.split(",")) {
+            int colon = entry.lastIndexOf(':');
+            try {
+                setter.accept(entry.substring(0, colon).trim(), Integer.parseInt(entry.substring(colon + 1).trim()));
+            } catch (RuntimeException e) {
+                log.error("Invalid low stock threshold \"{}\", expected key:quantity", entry);
+            }
+        }
+    }
+}
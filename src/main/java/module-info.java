@@ -13,6 +13,9 @@ module com.sparks.of.fabrication.oop2 {
     requires static lombok;
 
     requires org.hibernate.orm.core;
+    requires com.zaxxer.hikari;
+    requires java.management;
+    requires java.sql;
     requires spring.security.crypto;
     requires spring.core;
 
@@ -23,15 +26,15 @@ module com.sparks.of.fabrication.oop2 {
     opens com.sparks.of.fabrication.oop2.scenes.arrivalGoods to javafx.fxml, javafx.base;
     opens com.sparks.of.fabrication.oop2.scenes.checkout to javafx.fxml, javafx.base;
     opens com.sparks.of.fabrication.oop2.scenes.invoices to javafx.fxml, javafx.base;
-    opens com.sparks.of.fabrication.oop2.scenes.inventory to javafx.fxml, javafx.base;
+    opens com.sparks.of.fabrication.oop2.scenes.inventory to javafx.fxml, javafx.base, org.hibernate.orm.core;
     opens com.sparks.of.fabrication.oop2.scenes.employeeLogs to javafx.fxml, javafx.base;
     opens com.sparks.of.fabrication.oop2.scenes.nomenclature to javafx.fxml;
     opens com.sparks.of.fabrication.oop2.scenes.createEmployee to javafx.fxml;
     opens com.sparks.of.fabrication.oop2.scenes.ccheckout to javafx.fxml;
     opens com.sparks.of.fabrication.oop2.scenes.notification to javafx.fxml;
-    opens com.sparks.of.fabrication.oop2.scenes.statistic to javafx.fxml;
-    opens com.sparks.of.fabrication.oop2.scenes.transaction to javafx.fxml;
-    opens com.sparks.of.fabrication.oop2.utils to javafx.fxml;
+    opens com.sparks.of.fabrication.oop2.scenes.statistic to javafx.fxml, org.hibernate.orm.core;
+    opens com.sparks.of.fabrication.oop2.scenes.transaction to javafx.fxml, org.hibernate.orm.core;
+    opens com.sparks.of.fabrication.oop2.utils to javafx.fxml, org.hibernate.orm.core;
     exports com.sparks.of.fabrication.oop2;
     exports com.sparks.of.fabrication.oop2.utils;
 
@@ -0,0 +1,165 @@
+package com.sparks.of.fabrication.oop2.scenes.checkout;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertIterableEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the checkout journal: order of records, reuse of space once the end of the file is reached,
+ * and recovery from damaged records after a restart.
+ */
+class CheckoutJournalTest {
+
+    private static final int HEADER_SIZE = 16;
+    /**
+     * Length, payload and CRC of a basket with one line named "milk": 4 + (6 * 8 + 4 + 8 + 8 + 4 + 4 + 4) + 4.
+     */
+    private static final int RECORD_SIZE = 88;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void basketsAreReadAndAcknowledgedInOrder() throws IOException {
+        CheckoutJournal journal = new CheckoutJournal(directory.resolve("journal"), 4096);
+        JournaledBasket first = basket(1);
+        JournaledBasket second = basket(2);
+        JournaledBasket third = basket(3);
+        assertTrue(journal.append(first));
+        assertTrue(journal.append(second));
+        assertTrue(journal.append(third));
+
+        assertIterableEquals(List.of(first, second), journal.peekBatch(2));
+        assertEquals(3, journal.pendingCount());
+        assertFalse(journal.acknowledge(second.idempotencyKey()));
+        assertTrue(journal.acknowledge(first.idempotencyKey()));
+        assertEquals(second, journal.peek());
+        assertEquals(2, journal.pendingCount());
+        journal.close();
+    }
+
+    @Test
+    void unpostedBasketsSurviveARestart() throws IOException {
+        Path path = directory.resolve("journal");
+        CheckoutJournal journal = new CheckoutJournal(path, 4096);
+        JournaledBasket first = basket(1);
+        JournaledBasket second = basket(2);
+        journal.append(first);
+        journal.append(second);
+        journal.acknowledge(first.idempotencyKey());
+        journal.close();
+
+        CheckoutJournal reopened = new CheckoutJournal(path, 4096);
+        assertIterableEquals(List.of(second), reopened.peekBatch(10));
+        reopened.close();
+    }
+
+    @Test
+    void aFullJournalCompactsTheUnpostedBasketsToTheStart() throws IOException {
+        CheckoutJournal journal = new CheckoutJournal(directory.resolve("journal"), HEADER_SIZE + RECORD_SIZE * 3);
+        JournaledBasket[] baskets = {basket(1), basket(2), basket(3), basket(4), basket(5), basket(6)};
+        assertTrue(journal.append(baskets[0]));
+        assertTrue(journal.append(baskets[1]));
+        assertTrue(journal.append(baskets[2]));
+        assertFalse(journal.append(baskets[3]));
+
+        journal.acknowledge(baskets[0].idempotencyKey());
+        journal.acknowledge(baskets[1].idempotencyKey());
+        assertTrue(journal.append(baskets[3]));
+        assertTrue(journal.append(baskets[4]));
+        assertFalse(journal.append(baskets[5]));
+
+        assertIterableEquals(List.of(baskets[2], baskets[3], baskets[4]), journal.peekBatch(10));
+        journal.close();
+    }
+
+    @Test
+    void acknowledgingEveryBasketFreesTheWholeJournal() throws IOException {
+        CheckoutJournal journal = new CheckoutJournal(directory.resolve("journal"), HEADER_SIZE + RECORD_SIZE * 2);
+        for (int round = 0; round < 5; round++) {
+            JournaledBasket first = basket(round * 2);
+            JournaledBasket second = basket(round * 2 + 1);
+            assertTrue(journal.append(first));
+            assertTrue(journal.append(second));
+            assertTrue(journal.acknowledge(first.idempotencyKey()));
+            assertTrue(journal.acknowledge(second.idempotencyKey()));
+        }
+        assertNull(journal.peek());
+        assertEquals(0, journal.pendingCount());
+        journal.close();
+    }
+
+    @Test
+    void aRecordWithABadChecksumIsDroppedWithEverythingAfterIt() throws IOException {
+        Path path = directory.resolve("journal");
+        CheckoutJournal journal = new CheckoutJournal(path, 4096);
+        JournaledBasket first = basket(1);
+        journal.append(first);
+        journal.append(basket(2));
+        journal.append(basket(3));
+        journal.close();
+
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            long payloadByte = HEADER_SIZE + RECORD_SIZE + Integer.BYTES + 20;
+            file.seek(payloadByte);
+            int original = file.read();
+            file.seek(payloadByte);
+            file.write(original ^ 0xFF);
+        }
+
+        CheckoutJournal reopened = new CheckoutJournal(path, 4096);
+        assertEquals(1, reopened.pendingCount());
+        assertIterableEquals(List.of(first), reopened.peekBatch(10));
+        assertTrue(reopened.append(basket(4)));
+        assertEquals(2, reopened.pendingCount());
+        reopened.close();
+    }
+
+    @Test
+    void aRecordLengthPastTheWrittenEndIsDroppedWhenCounting() throws IOException {
+        Path path = directory.resolve("journal");
+        CheckoutJournal journal = new CheckoutJournal(path, 4096);
+        JournaledBasket first = basket(1);
+        journal.append(first);
+        journal.append(basket(2));
+        journal.close();
+
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            file.seek(HEADER_SIZE + RECORD_SIZE);
+            file.writeInt(Integer.MAX_VALUE);
+        }
+
+        CheckoutJournal reopened = new CheckoutJournal(path, 4096);
+        assertEquals(1, reopened.pendingCount());
+        assertIterableEquals(List.of(first), reopened.peekBatch(10));
+        reopened.close();
+    }
+
+    @Test
+    void aLineWithoutANameIsJournaled() throws IOException {
+        CheckoutJournal journal = new CheckoutJournal(directory.resolve("journal"), 4096);
+        JournaledBasket basket = new JournaledBasket(UUID.randomUUID().toString(), 1, 2, 3, LocalDate.of(2024, 5, 1),
+                List.of(new ScannedItem(42L, null, 2.5, 3), new ScannedItem(43L, "", 1.0, 1)));
+
+        assertTrue(journal.append(basket));
+        assertEquals(basket, journal.peek());
+        journal.close();
+    }
+
+    private static JournaledBasket basket(int number) {
+        return new JournaledBasket(UUID.randomUUID().toString(), 1, 2, 3, LocalDate.of(2024, 5, 1),
+                List.of(new ScannedItem((long) number, "milk", 1.25, number + 1)));
+    }
+}
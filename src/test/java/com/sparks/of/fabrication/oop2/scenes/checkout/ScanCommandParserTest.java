@@ -0,0 +1,103 @@
+package com.sparks.of.fabrication.oop2.scenes.checkout;
+
+import com.sparks.of.fabrication.oop2.scenes.checkout.ScanCommandParser.Kind;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the decoding of scan input into commands.
+ */
+class ScanCommandParserTest {
+
+    private final ScanCommandParser parser = new ScanCommandParser();
+
+    @Test
+    void itemCommandsAreSplitOnEverySeparator() {
+        assertEquals(5, parser.parse(" 1234 +5*77,-3*9;!42\t-8 "));
+
+        assertCommand(0, Kind.ADD, 1234, 1);
+        assertCommand(1, Kind.ADD, 77, 5);
+        assertCommand(2, Kind.REMOVE, 9, 3);
+        assertCommand(3, Kind.VOID_LINE, 42, 0);
+        assertCommand(4, Kind.REMOVE, 8, 1);
+        assertFalse(parser.hasError());
+        assertEquals(-1, parser.errorStart());
+    }
+
+    @Test
+    void cashCommandsAreReadInCents() {
+        assertEquals(4, parser.parse("+++12.50 ---3 +++0.7 +++100.05"));
+
+        assertEquals(Kind.CASH_IN, parser.kind(0));
+        assertEquals(1250, parser.amountMinor(0));
+        assertEquals(0, parser.code(0));
+        assertEquals(Kind.CASH_OUT, parser.kind(1));
+        assertEquals(300, parser.amountMinor(1));
+        assertEquals(70, parser.amountMinor(2));
+        assertEquals(10005, parser.amountMinor(3));
+    }
+
+    @Test
+    void doubleExclamationMarkVoidsTheBasket() {
+        assertEquals(1, parser.parse("!!"));
+
+        assertEquals(Kind.VOID_BASKET, parser.kind(0));
+        assertEquals(0, parser.code(0));
+    }
+
+    @Test
+    void invalidCommandsAreSkippedAndTheFirstIsReported() {
+        assertEquals(2, parser.parse("55 12a4 +0*5 66 +++1.234 ---0"));
+
+        assertCommand(0, Kind.ADD, 55, 1);
+        assertCommand(1, Kind.ADD, 66, 1);
+        assertTrue(parser.hasError());
+        assertEquals(4, parser.invalidCommands());
+        assertEquals(3, parser.errorStart());
+        assertEquals(7, parser.errorEnd());
+    }
+
+    @Test
+    void quantitiesAndCodesAreBounded() {
+        assertEquals(2, parser.parse("+9999*1 999999999999999999 +10000*1 1000000000000000000 *5 5*"));
+
+        assertCommand(0, Kind.ADD, 1, 9999);
+        assertCommand(1, Kind.ADD, 999_999_999_999_999_999L, 1);
+        assertEquals(4, parser.invalidCommands());
+    }
+
+    @Test
+    void commandsBeyondTheLimitAreReportedAsInvalid() {
+        StringBuilder input = new StringBuilder();
+        for (int i = 1; i <= ScanCommandParser.MAX_COMMANDS + 1; i++) {
+            input.append(i).append(' ');
+        }
+
+        assertEquals(ScanCommandParser.MAX_COMMANDS, parser.parse(input));
+        assertEquals(ScanCommandParser.MAX_COMMANDS, parser.code(ScanCommandParser.MAX_COMMANDS - 1));
+        assertEquals(1, parser.invalidCommands());
+    }
+
+    @Test
+    void everyParseStartsFromScratch() {
+        parser.parse("x 7");
+        assertTrue(parser.hasError());
+
+        assertEquals(1, parser.parse("8"));
+        assertCommand(0, Kind.ADD, 8, 1);
+        assertFalse(parser.hasError());
+        assertEquals(0, parser.parse("  ,; "));
+        assertEquals(0, parser.parse(""));
+    }
+
+    private void assertCommand(int index, Kind kind, long code, int quantity) {
+        assertEquals(kind, parser.kind(index));
+        assertEquals(code, parser.code(index));
+        if (kind == Kind.ADD || kind == Kind.REMOVE) {
+            assertEquals(quantity, parser.quantity(index));
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.sparks.of.fabrication.oop2.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the quoting, line break and length handling of {@link CsvReader}.
+ */
+class CsvReaderTest {
+
+    @Test
+    void quotedFieldsHoldSeparatorsQuotesAndLineBreaks() throws IOException {
+        CsvReader reader = reader("\"a,b\",\"say \"\"hi\"\"\",\"two\nlines\",plain\nnext,row\n");
+
+        assertTrue(reader.next());
+        assertEquals(List.of("a,b", "say \"hi\"", "two\nlines", "plain"), fields(reader));
+        assertEquals("\"a,b\",\"say \"\"hi\"\"\",\"two\nlines\",plain", reader.raw().toString());
+        assertEquals(1, reader.lineNumber());
+        assertTrue(reader.next());
+        assertEquals(List.of("next", "row"), fields(reader));
+        assertEquals(3, reader.lineNumber());
+        assertFalse(reader.next());
+    }
+
+    @Test
+    void crlfAndBareCrEndRecordsAndBlankLinesAreSkipped() throws IOException {
+        CsvReader reader = reader("name,qty\r\n\r\nmilk,2\r\n\n\"x\r\ny\",3\rlast,4");
+
+        assertTrue(reader.next());
+        assertEquals(List.of("name", "qty"), fields(reader));
+        assertTrue(reader.next());
+        assertEquals(List.of("milk", "2"), fields(reader));
+        assertEquals(3, reader.lineNumber());
+        assertTrue(reader.next());
+        assertEquals(List.of("x\r\ny", "3"), fields(reader));
+        assertTrue(reader.next());
+        assertEquals(List.of("last", "4"), fields(reader));
+        assertFalse(reader.next());
+    }
+
+    @Test
+    void emptyFieldsAreKept() throws IOException {
+        CsvReader reader = reader("a,,\"\",d,\n");
+
+        assertTrue(reader.next());
+        assertEquals(List.of("a", "", "", "d", ""), fields(reader));
+        assertEquals("", reader.get(10));
+    }
+
+    @Test
+    void aQuoteInsideAnUnquotedFieldIsKept() throws IOException {
+        CsvReader reader = reader("5\" pipe,2\n");
+
+        assertTrue(reader.next());
+        assertEquals(List.of("5\" pipe", "2"), fields(reader));
+    }
+
+    @Test
+    void aLeadingByteOrderMarkIsSkipped() throws IOException {
+        CsvReader reader = reader("\uFEFFname,price\n\uFEFFx,1\n");
+
+        assertTrue(reader.next());
+        assertEquals(List.of("name", "price"), fields(reader));
+        assertEquals("name,price", reader.raw().toString());
+        assertTrue(reader.next());
+        assertEquals("\uFEFFx", reader.get(0));
+    }
+
+    @Test
+    void aRecordLongerThanTheMaximumIsConsumedButNotKept() throws IOException {
+        CsvReader reader = new CsvReader(new StringReader("short,1\n" + "x".repeat(50) + ",2\nafter,3\n"), 20);
+
+        assertTrue(reader.next());
+        assertFalse(reader.isTooLong());
+        assertTrue(reader.next());
+        assertTrue(reader.isTooLong());
+        assertEquals(20, reader.raw().length());
+        assertTrue(reader.next());
+        assertFalse(reader.isTooLong());
+        assertEquals(List.of("after", "3"), fields(reader));
+        assertEquals(3, reader.lineNumber());
+    }
+
+    @Test
+    void anUnclosedQuoteRunsToTheEndOfTheStream() throws IOException {
+        CsvReader reader = new CsvReader(new StringReader("ok,1\n\"open,2\nmore,3\n"), 100);
+
+        assertTrue(reader.next());
+        assertTrue(reader.next());
+        assertEquals(List.of("open,2\nmore,3\n"), fields(reader));
+        assertFalse(reader.next());
+    }
+
+    @Test
+    void recordsWrittenByCsvWriterReadBackUnchanged() throws IOException {
+        StringWriter text = new StringWriter();
+        try (CsvWriter writer = new CsvWriter(text)) {
+            writer.writeRow("a,b", "say \"hi\"", "two\r\nlines", null, 1.5);
+        }
+        CsvReader reader = reader(text.toString());
+
+        assertTrue(reader.next());
+        assertEquals(List.of("a,b", "say \"hi\"", "two\r\nlines", "", "1.5"), fields(reader));
+        assertFalse(reader.next());
+    }
+
+    private static CsvReader reader(String text) {
+        return new CsvReader(new StringReader(text), 4096);
+    }
+
+    private static List<String> fields(CsvReader reader) {
+        List<String> fields = new ArrayList<>();
+        for (int i = 0; i < reader.size(); i++) {
+            fields.add(reader.get(i));
+        }
+        return fields;
+    }
+}
@@ -0,0 +1,126 @@
+package com.sparks.of.fabrication.oop2.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Tests the open-addressing table of {@link ItemCatalog}, in particular the backward-shift deletion of
+ * {@link ItemCatalog#invalidate(long)}, which must keep every remaining entry reachable from its home slot.
+ */
+class ItemCatalogTest {
+
+    private static final int CAPACITY = 1024;
+
+    @Test
+    void invalidateMovesTheRestOfTheProbeChainBack() {
+        ItemCatalog catalog = new ItemCatalog();
+        List<Long> ids = idsWithHomeSlot(10, 3);
+        ids.forEach(id -> catalog.put(item(id)));
+
+        catalog.invalidate(ids.get(0));
+
+        assertNull(catalog.get(ids.get(0)));
+        assertEquals(ids.get(1), catalog.get(ids.get(1)).id());
+        assertEquals(ids.get(2), catalog.get(ids.get(2)).id());
+        assertEquals(2, catalog.size());
+    }
+
+    @Test
+    void invalidateLeavesEntriesThatAreInTheirHomeSlot() {
+        ItemCatalog catalog = new ItemCatalog();
+        List<Long> homeTen = idsWithHomeSlot(10, 2);
+        long homeEleven = idsWithHomeSlot(11, 1).getFirst();
+        catalog.put(item(homeTen.get(0)));
+        catalog.put(item(homeEleven));
+        catalog.put(item(homeTen.get(1)));
+
+        catalog.invalidate(homeTen.get(0));
+
+        assertNull(catalog.get(homeTen.get(0)));
+        assertEquals(homeEleven, catalog.get(homeEleven).id());
+        assertEquals(homeTen.get(1), catalog.get(homeTen.get(1)).id());
+    }
+
+    @Test
+    void invalidateShiftsBackAcrossTheEndOfTheTable() {
+        ItemCatalog catalog = new ItemCatalog();
+        List<Long> lastSlot = idsWithHomeSlot(CAPACITY - 1, 3);
+        long firstSlot = idsWithHomeSlot(0, 1).getFirst();
+        lastSlot.forEach(id -> catalog.put(item(id)));
+        catalog.put(item(firstSlot));
+
+        catalog.invalidate(lastSlot.get(0));
+
+        assertNull(catalog.get(lastSlot.get(0)));
+        assertEquals(lastSlot.get(1), catalog.get(lastSlot.get(1)).id());
+        assertEquals(lastSlot.get(2), catalog.get(lastSlot.get(2)).id());
+        assertEquals(firstSlot, catalog.get(firstSlot).id());
+    }
+
+    @Test
+    void invalidateOfAnUnknownIdChangesNothing() {
+        ItemCatalog catalog = new ItemCatalog();
+        List<Long> ids = idsWithHomeSlot(20, 2);
+        catalog.put(item(ids.get(0)));
+
+        catalog.invalidate(ids.get(1));
+
+        assertEquals(ids.get(0), catalog.get(ids.get(0)).id());
+        assertEquals(1, catalog.size());
+    }
+
+    @Test
+    void everyRemainingItemIsFoundAfterManyInvalidations() {
+        ItemCatalog catalog = new ItemCatalog();
+        for (long id = 1; id <= 3000; id++) {
+            catalog.put(item(id));
+        }
+        for (long id = 1; id <= 3000; id += 3) {
+            catalog.invalidate(id);
+        }
+
+        for (long id = 1; id <= 3000; id++) {
+            if (id % 3 == 1) {
+                assertNull(catalog.get(id));
+            } else {
+                assertNotNull(catalog.get(id), "item " + id);
+            }
+        }
+        assertEquals(2000, catalog.size());
+    }
+
+    @Test
+    void putReplacesTheSnapshotOfAnItem() {
+        ItemCatalog catalog = new ItemCatalog();
+        catalog.put(new CatalogItem(7L, "milk", 1.20, "dairy"));
+        catalog.put(new CatalogItem(7L, "milk", 1.35, "dairy"));
+
+        assertEquals(1.35, catalog.get(7L).price());
+        assertEquals(1, catalog.size());
+    }
+
+    /**
+     * Finds ids whose home slot in a table of the initial capacity is the given slot, using the same hash as
+     * the catalog.
+     */
+    private static List<Long> idsWithHomeSlot(int slot, int count) {
+        List<Long> ids = new ArrayList<>(count);
+        for (long id = 1; ids.size() < count; id++) {
+            long h = id * 0x9E3779B97F4A7C15L;
+            if (((int) (h ^ (h >>> 32)) & (CAPACITY - 1)) == slot) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    private static CatalogItem item(long id) {
+        return new CatalogItem(id, "item " + id, 1.0, "category");
+    }
+}
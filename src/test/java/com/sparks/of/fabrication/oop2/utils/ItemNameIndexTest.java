@@ -0,0 +1,100 @@
+package com.sparks.of.fabrication.oop2.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests that {@link ItemNameIndex} keeps its entries ordered by name, then id, however they are added,
+ * renamed and removed.
+ */
+class ItemNameIndexTest {
+
+    private final ItemNameIndex index = new ItemNameIndex();
+
+    @Test
+    void matchesAreOrderedByNameThenIdWhateverTheInsertionOrder() {
+        index.put(3, "milk");
+        index.put(1, "bread");
+        index.put(4, "mint");
+        index.put(2, "milk");
+        index.put(5, "Milk");
+
+        assertArrayEquals(new long[]{2, 3, 4}, index.findByPrefix("mi", 0));
+        assertArrayEquals(new long[]{2, 3}, index.findByPrefix("milk", 0));
+        assertArrayEquals(new long[]{5}, index.findByPrefix("M", 0));
+        assertArrayEquals(new long[]{5, 1, 2, 3, 4}, index.findByPrefix("", 0));
+    }
+
+    @Test
+    void theLimitKeepsTheFirstMatchesInNameOrder() {
+        index.put(1, "cola");
+        index.put(2, "coffee");
+        index.put(3, "cocoa");
+        index.put(4, "tea");
+
+        assertArrayEquals(new long[]{3, 2}, index.findByPrefix("co", 2));
+        assertArrayEquals(new long[]{3, 2, 1}, index.findByPrefix("co", 10));
+    }
+
+    @Test
+    void aRenamedItemMovesToItsNewPlace() {
+        index.put(1, "apple");
+        index.put(2, "banana");
+        index.put(3, "cherry");
+
+        index.put(1, "date");
+
+        assertArrayEquals(new long[0], index.findByPrefix("a", 0));
+        assertArrayEquals(new long[]{2, 3, 1}, index.findByPrefix("", 0));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void removedItemsAreNoLongerFound() {
+        index.put(1, "salt");
+        index.put(2, "salt");
+        index.put(3, "sugar");
+
+        index.remove(1);
+        index.put(3, null);
+        index.remove(99);
+
+        assertArrayEquals(new long[]{2}, index.findByPrefix("s", 0));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void puttingTheSameNameAgainKeepsOneEntry() {
+        index.put(7, "rice");
+        index.put(7, "rice");
+
+        assertArrayEquals(new long[]{7}, index.findByPrefix("rice", 0));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void prefixesOutsideTheIndexFindNothing() {
+        index.put(1, "bread");
+
+        assertArrayEquals(new long[0], index.findByPrefix("a", 0));
+        assertArrayEquals(new long[0], index.findByPrefix("c", 0));
+        assertArrayEquals(new long[0], index.findByPrefix("breads", 0));
+    }
+
+    @Test
+    void theIndexStaysOrderedAsItGrows() {
+        for (int id = 3000; id >= 1; id--) {
+            index.put(id, String.format("item%05d", id % 1000));
+        }
+        for (int id = 1; id <= 3000; id += 2) {
+            index.remove(id);
+        }
+
+        long[] matches = index.findByPrefix("item0001", 0);
+        assertArrayEquals(new long[]{10, 1010, 2010, 12, 1012, 2012, 14, 1014, 2014, 16, 1016, 2016, 18, 1018, 2018},
+                matches);
+        assertEquals(1500, index.size());
+    }
+}